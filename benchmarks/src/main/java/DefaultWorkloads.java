@@ -0,0 +1,129 @@
+import benchmark.Workload;
+import benchmark.Workloads;
+import classes.Simple;
+import classes.SimpleArray;
+import classes.SimpleNestedNested;
+import type.DoubleType;
+import type.IntegerType;
+import type.PhoneType;
+import type.StringType;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link Workloads} over {@link Sanitizer}, {@link SanitizerSchema} and {@link RewritingSanitizer}, see {@link Workload} for why it lives here.
+ */
+public class DefaultWorkloads implements Workloads {
+    private static final int POOL_SIZE = 64;
+
+    @Override
+    public Workload of(String mapping, String engine) throws Exception {
+        switch (mapping + "/" + engine) {
+            case SIMPLE + "/" + SANITIZER:
+                return json -> Sanitizer.of(json, Simple.class)
+                        .map("foo", IntegerType.class)
+                        .map("bar", StringType.class)
+                        .map("baz", PhoneType.class)
+                        .get();
+            case SIMPLE_ARRAY + "/" + SANITIZER:
+                return json -> Sanitizer.of(json, SimpleArray.class)
+                        .map("foo", IntegerType.class)
+                        .map("bar", StringType.class)
+                        .map("baz", PhoneType.class)
+                        .map("array", DoubleType[].class)
+                        .get();
+            case NESTED_NESTED + "/" + SANITIZER: {
+                final Map<String, Object> nested = nested();
+                return json -> Sanitizer.of(json, SimpleNestedNested.class)
+                        .map("foo", IntegerType.class)
+                        .map("bar", StringType.class)
+                        .map("baz", PhoneType.class)
+                        .map("nested", nested)
+                        .get();
+            }
+            case SIMPLE + "/" + SCHEMA:
+                return simple()::apply;
+            case SIMPLE + "/" + STREAM:
+                return simple()::stream;
+            case SIMPLE_ARRAY + "/" + SCHEMA:
+                return simpleArray()::apply;
+            case SIMPLE_ARRAY + "/" + STREAM:
+                return simpleArray()::stream;
+            case NESTED_NESTED + "/" + SCHEMA:
+                return nestedNested()::apply;
+            case NESTED_NESTED + "/" + STREAM:
+                return nestedNested()::stream;
+            case SIMPLE + "/" + POOLED:
+                return pooled(simple().pool(POOL_SIZE));
+            case SIMPLE_ARRAY + "/" + POOLED:
+                return pooled(simpleArray().pool(POOL_SIZE));
+            case NESTED_NESTED + "/" + POOLED:
+                return pooled(nestedNested().pool(POOL_SIZE));
+            case SIMPLE + "/" + REWRITE:
+                return simpleRewrite()::rewrite;
+            case SIMPLE_ARRAY + "/" + REWRITE:
+                return simpleRewrite().map("array", DoubleType[].class)::rewrite;
+            case NESTED_NESTED + "/" + REWRITE:
+                return simpleRewrite().map("nested", nested())::rewrite;
+            default:
+                throw new IllegalArgumentException(String.format("Unknown workload %s/%s", mapping, engine));
+        }
+    }
+
+    /**
+     * The target goes back to the pool before the workload returns, one of its values is returned instead.
+     */
+    private static Workload pooled(SanitizerPool<? extends Simple> pool) {
+        return json -> {
+            try (SanitizerPool.Lease<? extends Simple> lease = pool.stream(json)) {
+                return lease.get().getBaz();
+            }
+        };
+    }
+
+    private static SanitizerSchema<Simple> simple() throws InstantiationException, IllegalAccessException {
+        return SanitizerSchema.of(Simple.class)
+                .map("foo", IntegerType.class)
+                .map("bar", StringType.class)
+                .map("baz", PhoneType.class);
+    }
+
+    private static SanitizerSchema<SimpleArray> simpleArray() throws InstantiationException, IllegalAccessException {
+        return SanitizerSchema.of(SimpleArray.class)
+                .map("foo", IntegerType.class)
+                .map("bar", StringType.class)
+                .map("baz", PhoneType.class)
+                .map("array", DoubleType[].class);
+    }
+
+    private static SanitizerSchema<SimpleNestedNested> nestedNested() throws InstantiationException, IllegalAccessException {
+        return SanitizerSchema.of(SimpleNestedNested.class)
+                .map("foo", IntegerType.class)
+                .map("bar", StringType.class)
+                .map("baz", PhoneType.class)
+                .map("nested", nested());
+    }
+
+    private static RewritingSanitizer simpleRewrite() throws InstantiationException, IllegalAccessException {
+        return RewritingSanitizer.create()
+                .map("foo", IntegerType.class)
+                .map("bar", StringType.class)
+                .map("baz", PhoneType.class);
+    }
+
+    private static Map<String, Object> nested() {
+        Map<String, Object> nested2 = new HashMap<>();
+        nested2.put("foo", IntegerType.class);
+        nested2.put("bar", StringType.class);
+        nested2.put("baz", PhoneType.class);
+        nested2.put("array", DoubleType[].class);
+
+        Map<String, Object> nested1 = new HashMap<>();
+        nested1.put("foo", IntegerType.class);
+        nested1.put("bar", StringType.class);
+        nested1.put("baz", PhoneType.class);
+        nested1.put("nested", nested2);
+        return nested1;
+    }
+}
@@ -0,0 +1,90 @@
+import benchmark.Payloads;
+import classes.SimpleNestedNested;
+import metrics.Histogram;
+import type.DoubleType;
+import type.IntegerType;
+import type.PhoneType;
+import type.StringType;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load test of {@link SanitizerService} with an in-process producer submitting nested documents at a fixed rate:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar ServiceLoad [rate/s] [seconds] [workers] [overflow]
+ * </pre>
+ * Latency is counted from the time a document was due to be sent, so a stalled producer is not hidden.
+ * Every second the queue depth and latency percentiles of that second are printed.
+ */
+public class ServiceLoad {
+
+    public static void main(String[] args) throws Exception {
+        final int rate = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        final int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        final int workers = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        final SanitizerService.Overflow overflow = args.length > 3
+                ? SanitizerService.Overflow.valueOf(args[3]) : SanitizerService.Overflow.REJECT;
+        final String json = Payloads.load(Payloads.NESTED_NESTED);
+
+        try (SanitizerService<SimpleNestedNested> service = SanitizerService.builder(schema())
+                .workers(workers)
+                .queueCapacity(8192)
+                .overflow(overflow)
+                .timeout(100, TimeUnit.MILLISECONDS)
+                .start()) {
+            System.out.printf("rate %d/s, %d workers, %s%n", rate, workers, overflow);
+            System.out.println("second  queue  p50,us  p99,us  p99.9,us  max,us  rejected  expired");
+
+            final long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+            final long begin = System.nanoTime();
+            long sent = 0;
+            for (int second = 1; second <= seconds; second++) {
+                final Histogram latency = new Histogram();
+                final long end = begin + TimeUnit.SECONDS.toNanos(second);
+                int maxDepth = 0;
+
+                for (long due = begin + sent * interval; due < end; due = begin + ++sent * interval) {
+                    final long wait = due - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    final long scheduled = due;
+                    service.submit(json).thenRun(() -> latency.record(System.nanoTime() - scheduled));
+                    maxDepth = Math.max(maxDepth, service.queueDepth());
+                }
+                System.out.printf("%6d  %5d  %6d  %6d  %8d  %6d  %8d  %7d%n", second, maxDepth,
+                        micros(latency.percentile(50)), micros(latency.percentile(99)), micros(latency.percentile(99.9)),
+                        micros(latency.max()), service.rejectedCount(), service.expiredCount());
+            }
+            System.out.printf("completed %d, batch size p50 %d, max %d%n", service.completedCount(),
+                    service.batchSizes().percentile(50), service.batchSizes().max());
+        }
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    private static SanitizerSchema<SimpleNestedNested> schema() throws InstantiationException, IllegalAccessException {
+        Map<String, Object> nested2 = new HashMap<>();
+        nested2.put("foo", IntegerType.class);
+        nested2.put("bar", StringType.class);
+        nested2.put("baz", PhoneType.class);
+        nested2.put("array", DoubleType[].class);
+
+        Map<String, Object> nested1 = new HashMap<>();
+        nested1.put("foo", IntegerType.class);
+        nested1.put("bar", StringType.class);
+        nested1.put("baz", PhoneType.class);
+        nested1.put("nested", nested2);
+
+        return SanitizerSchema.of(SimpleNestedNested.class)
+                .map("foo", IntegerType.class)
+                .map("bar", StringType.class)
+                .map("baz", PhoneType.class)
+                .map("nested", nested1);
+    }
+}
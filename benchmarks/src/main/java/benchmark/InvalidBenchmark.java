@@ -0,0 +1,51 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.xml.bind.ValidationException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Documents where every mapped field is invalid: the cost of the error path.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class InvalidBenchmark {
+    @Param({Workloads.SIMPLE, Workloads.NESTED_NESTED})
+    private String mapping;
+
+    @Param({Workloads.SANITIZER, Workloads.SCHEMA, Workloads.STREAM})
+    private String engine;
+
+    private Workload workload;
+    private String json;
+
+    @Setup
+    public void setup() throws Exception {
+        workload = Workloads.load().of(mapping, engine);
+        json = Payloads.load(Workloads.SIMPLE.equals(mapping) ? Payloads.SIMPLE_INVALID : Payloads.NESTED_NESTED_INVALID);
+    }
+
+    @Benchmark
+    public Object invalid() throws Exception {
+        try {
+            return workload.sanitize(json);
+        } catch (ValidationException e) {
+            return e;
+        }
+    }
+}
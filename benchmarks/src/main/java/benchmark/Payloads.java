@@ -0,0 +1,102 @@
+package benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * Deterministic payload fixtures of the benchmarks.
+ * The fixtures in {@code src/main/resources/payload} are produced by {@link #main(String[])}:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar benchmark.Payloads benchmarks/src/main/resources/payload
+ * </pre>
+ */
+public final class Payloads {
+    public static final String SIMPLE = "simple";
+    public static final String SIMPLE_INVALID = "simple_invalid";
+    public static final String NESTED_NESTED = "simple_nested_nested";
+    public static final String NESTED_NESTED_INVALID = "simple_nested_nested_invalid";
+    public static final int[] ARRAY_SIZES = {10, 100, 1000, 10000};
+
+    private static final String[] PHONES = {
+            "8 (950) 288-56-23", "+7 950 288 56 23", "89502885623", "9502885623", "7-950-288-56-23"
+    };
+
+    private Payloads() {
+    }
+
+    public static String array(int size) {
+        return "simple_array_" + size;
+    }
+
+    public static String load(String name) {
+        final InputStream in = Payloads.class.getResourceAsStream("/payload/" + name + ".json");
+        return ofNullable(in)
+                .map(r -> new BufferedReader(new InputStreamReader(r, StandardCharsets.UTF_8)).lines().collect(Collectors.joining("\n")))
+                .orElseThrow(() -> new UncheckedIOException(new IOException("Payload not found: " + name)));
+    }
+
+    static String simple(Random random, boolean valid) {
+        return String.format("\"foo\": \"%s\", \"bar\": \"%s\", \"baz\": \"%s\"",
+                valid ? String.valueOf(random.nextInt(100000)) : random.nextInt(100000) + "a",
+                "bar-" + Long.toHexString(random.nextLong()),
+                valid ? PHONES[random.nextInt(PHONES.length)] : "8 (950) 288");
+    }
+
+    static String array(Random random, int size, boolean valid) {
+        final StringBuilder builder = new StringBuilder("[");
+
+        for (int i = 0; i < size; i++) {
+            if (i != 0) {
+                builder.append(", ");
+            }
+            switch (random.nextInt(3)) {
+                case 0:
+                    builder.append('"').append(random.nextInt(1000)).append('.').append(random.nextInt(100)).append('"');
+                    break;
+                case 1:
+                    builder.append('"').append(random.nextInt(1000)).append(',').append(random.nextInt(100)).append('"');
+                    break;
+                default:
+                    builder.append(random.nextInt(1000));
+            }
+            if (!valid && i == size / 2) {
+                builder.append(", \"123x\"");
+            }
+        }
+        return builder.append(']').toString();
+    }
+
+    static String nestedNested(Random random, boolean valid) {
+        return String.format("{%s, \"nested\": {%s, \"nested\": {%s, \"array\": %s}}}",
+                simple(random, valid), simple(random, valid), simple(random, valid), array(random, 10, valid));
+    }
+
+    public static void main(String[] args) throws IOException {
+        final Path directory = Paths.get(args.length > 0 ? args[0] : "src/main/resources/payload");
+        final Random random = new Random(20201018L);
+
+        Files.createDirectories(directory);
+        write(directory, SIMPLE, "{" + simple(random, true) + "}");
+        write(directory, SIMPLE_INVALID, "{" + simple(random, false) + "}");
+        for (int size : ARRAY_SIZES) {
+            write(directory, array(size), String.format("{%s, \"array\": %s}", simple(random, true), array(random, size, true)));
+        }
+        write(directory, NESTED_NESTED, nestedNested(random, true));
+        write(directory, NESTED_NESTED_INVALID, nestedNested(random, false));
+    }
+
+    private static void write(Path directory, String name, String json) throws IOException {
+        Files.write(directory.resolve(name + ".json"), (json + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+}
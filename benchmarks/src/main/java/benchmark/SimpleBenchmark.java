@@ -0,0 +1,43 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flat {@code Simple} document: one integer, one string and one phone.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SimpleBenchmark {
+    @Param({Workloads.SANITIZER, Workloads.SCHEMA, Workloads.STREAM, Workloads.POOLED, Workloads.REWRITE})
+    private String engine;
+
+    private Workload workload;
+    private String json;
+
+    @Setup
+    public void setup() throws Exception {
+        workload = Workloads.load().of(Workloads.SIMPLE, engine);
+        json = Payloads.load(Payloads.SIMPLE);
+    }
+
+    @Benchmark
+    public Object simple() throws Exception {
+        return workload.sanitize(json);
+    }
+}
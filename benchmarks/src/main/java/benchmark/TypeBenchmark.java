@@ -0,0 +1,79 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import type.BaseType;
+import type.DoubleType;
+import type.IntegerType;
+import type.PhoneType;
+import type.StringType;
+
+import javax.xml.bind.ValidationException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single {@link BaseType#transform(String)} call, for a valid and an invalid value of each type.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TypeBenchmark {
+    @Param({"IntegerType", "DoubleType", "PhoneType", "StringType"})
+    private String type;
+
+    private BaseType<?> baseType;
+    private String valid;
+    private String invalid;
+
+    @Setup
+    public void setup() {
+        switch (type) {
+            case "IntegerType":
+                baseType = new IntegerType();
+                valid = "1234567";
+                invalid = "1234567a";
+                break;
+            case "DoubleType":
+                baseType = new DoubleType();
+                valid = "1234,567";
+                invalid = "1234,567x";
+                break;
+            case "PhoneType":
+                baseType = new PhoneType();
+                valid = "8 (950) 288-56-23";
+                invalid = "8 (950) 288-56-233";
+                break;
+            default:
+                baseType = new StringType();
+                valid = "asd";
+                invalid = null;
+        }
+    }
+
+    @Benchmark
+    public Object valid() throws ValidationException {
+        return baseType.transform(valid);
+    }
+
+    @Benchmark
+    public Object invalid() {
+        try {
+            return baseType.transform(invalid);
+        } catch (ValidationException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package benchmark;
+
+/**
+ * Sanitizes one document. {@code Sanitizer} and {@code SanitizerSchema} live in the default package,
+ * which classes of a named package, and so JMH benchmarks, can not refer to; workloads are created
+ * on their side of the fence by {@code DefaultWorkloads} and called through this interface.
+ */
+@FunctionalInterface
+public interface Workload {
+
+    Object sanitize(String json) throws Exception;
+}
@@ -0,0 +1,30 @@
+package benchmark;
+
+/**
+ * Factory of {@link Workload}s, implemented by {@code DefaultWorkloads} in the default package.
+ */
+public interface Workloads {
+    String SANITIZER = "sanitizer";
+    String SCHEMA = "schema";
+    String STREAM = "stream";
+    String POOLED = "pooled";
+    String REWRITE = "rewrite";
+
+    String SIMPLE = "simple";
+    String SIMPLE_ARRAY = "simple_array";
+    String NESTED_NESTED = "nested_nested";
+
+    /**
+     * @param mapping one of {@link #SIMPLE}, {@link #SIMPLE_ARRAY}, {@link #NESTED_NESTED}
+     * @param engine  one of {@link #SANITIZER}, {@link #SCHEMA}, {@link #STREAM}, {@link #POOLED}, {@link #REWRITE}
+     */
+    Workload of(String mapping, String engine) throws Exception;
+
+    static Workloads load() {
+        try {
+            return (Workloads) Class.forName("DefaultWorkloads").newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+
+import javax.xml.bind.ValidationException;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking front end of {@link SanitizerSchema#stream(JsonParser)} for a single document which arrives in chunks:
+ * <pre>
+ * AsyncSanitizer&lt;Simple&gt; sanitizer = schema.async();
+ * sanitizer.result().thenAccept(sink);
+ *
+ * // on every chunk read from the connection
+ * sanitizer.feed(chunk, 0, length);
+ * // once the body is complete
+ * sanitizer.end();
+ * </pre>
+ * Every chunk is parsed as far as it goes and the tokens are pushed into the sanitizing state machine right away,
+ * so nothing is buffered besides the parser state and the open objects. The result completes as soon as the root value
+ * ends, exceptionally with a {@link ValidationException} for invalid or malformed documents, runtime exceptions of a
+ * type included.
+ * An instance is not thread-safe: chunks of a document must be fed one at a time, but any thread may feed them.
+ */
+public final class AsyncSanitizer<T> {
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final StreamingSanitizer<T> sanitizer;
+    private final CompletableFuture<T> result;
+    private boolean started;
+    private long start;
+
+    AsyncSanitizer(SanitizerSchema<T> schema) throws IOException {
+        this.parser = schema.mapper().getFactory().createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        this.sanitizer = new StreamingSanitizer<>(schema, false);
+        this.result = new CompletableFuture<>();
+    }
+
+    public AsyncSanitizer<T> feed(byte[] chunk) {
+        return feed(chunk, 0, chunk.length);
+    }
+
+    /**
+     * Parses the chunk, {@code chunk} is not used after the call returns. Input after the end of the document is ignored.
+     */
+    public AsyncSanitizer<T> feed(byte[] chunk, int offset, int length) {
+        if (!result.isDone() && length > 0) {
+            try {
+                if (start == 0) {
+                    start = SanitizerSchema.documentStart();
+                }
+                feeder.feedInput(chunk, offset, offset + length);
+                advance();
+            } catch (IOException e) {
+                fail(e);
+            } catch (RuntimeException e) {
+                fail(e);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Signals the end of the document, an unfinished document completes the result exceptionally.
+     */
+    public void end() {
+        if (result.isDone()) {
+            return;
+        }
+        feeder.endOfInput();
+        try {
+            advance();
+            if (!result.isDone()) {
+                if (started) {
+                    fail(new IOException("Unexpected end-of-input"));
+                } else {
+                    complete();
+                }
+            }
+        } catch (IOException e) {
+            fail(e);
+        } catch (RuntimeException e) {
+            fail(e);
+        }
+    }
+
+    public CompletableFuture<T> result() {
+        return result;
+    }
+
+    private void advance() throws IOException {
+        for (JsonToken token = parser.nextToken(); token != null && token != JsonToken.NOT_AVAILABLE; token = parser.nextToken()) {
+            started = true;
+            if (sanitizer.accept(parser, token)) {
+                complete();
+                return;
+            }
+        }
+    }
+
+    private void complete() {
+        SanitizerSchema.documentEnd(start, sanitizer.errors().isEmpty());
+        try {
+            result.complete(sanitizer.get());
+        } catch (ValidationException e) {
+            result.completeExceptionally(e);
+        } finally {
+            close();
+        }
+    }
+
+    private void fail(IOException e) {
+        fail(new ValidationException(String.format("Malformed json: %s", e.getMessage())));
+    }
+
+    /**
+     * A type failing unexpectedly, e.g. on integer overflow, fails the document instead of the caller of {@code feed}.
+     */
+    private void fail(RuntimeException e) {
+        fail(new ValidationException(String.format("Sanitization failed: %s", e), e));
+    }
+
+    private void fail(ValidationException e) {
+        result.completeExceptionally(e);
+        close();
+    }
+
+    private void close() {
+        try {
+            parser.close();
+        } catch (IOException ignored) {
+            // nothing to release, the non-blocking parser has no underlying source
+        }
+    }
+}
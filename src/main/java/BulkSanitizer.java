@@ -0,0 +1,250 @@
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import javax.xml.bind.ValidationException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Sanitizes batches of documents with a {@link SanitizerSchema}, spreading the records over an executor:
+ * <pre>
+ * try (Stream&lt;Result&lt;Simple&gt;&gt; results = BulkSanitizer.of(schema).ndjson(path)) {
+ *     results.forEach(sink);
+ * }
+ * </pre>
+ * Records are read sequentially and handed to the executor, at most {@link #inFlight(int)} of them at a time.
+ * With {@link #ordered(boolean)} switched off results are returned as soon as they are ready.
+ */
+public class BulkSanitizer<T> {
+    private final SanitizerSchema<T> schema;
+    private final Executor executor;
+    private final boolean ordered;
+    private final int inFlight;
+
+    private BulkSanitizer(SanitizerSchema<T> schema, Executor executor, boolean ordered, int inFlight) {
+        this.schema = schema;
+        this.executor = executor;
+        this.ordered = ordered;
+        this.inFlight = inFlight;
+    }
+
+    public static <T> BulkSanitizer<T> of(SanitizerSchema<T> schema) {
+        final ForkJoinPool pool = ForkJoinPool.commonPool();
+        return new BulkSanitizer<>(schema, pool, true, 4 * pool.getParallelism());
+    }
+
+    public BulkSanitizer<T> executor(Executor executor) {
+        return new BulkSanitizer<>(schema, executor, ordered, inFlight);
+    }
+
+    public BulkSanitizer<T> ordered(boolean ordered) {
+        return new BulkSanitizer<>(schema, executor, ordered, inFlight);
+    }
+
+    public BulkSanitizer<T> inFlight(int inFlight) {
+        if (inFlight < 1) {
+            throw new IllegalArgumentException("inFlight must be positive");
+        }
+        return new BulkSanitizer<>(schema, executor, ordered, inFlight);
+    }
+
+    /**
+     * Newline delimited json, one document per line, blank lines are ignored.
+     * Each line is parsed on the executor.
+     */
+    public Stream<Result<T>> ndjson(InputStream in) {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        final Iterator<String> lines = reader.lines().filter(l -> !l.trim().isEmpty()).iterator();
+
+        return stream(lines, schema::stream, () -> {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public Stream<Result<T>> ndjson(Path path) throws IOException {
+        return ndjson(Files.newInputStream(path));
+    }
+
+    /**
+     * Top level json array of documents. The array is tokenized sequentially, elements are sanitized on the executor.
+     */
+    public Stream<Result<T>> array(InputStream in) throws IOException {
+        return array(JsonInput.parser(schema.mapper().getFactory(), in));
+    }
+
+    /**
+     * Large files are memory mapped, see {@link JsonInput#MAP_THRESHOLD}.
+     */
+    public Stream<Result<T>> array(Path path) throws IOException {
+        return array(JsonInput.parser(schema.mapper().getFactory(), path));
+    }
+
+    private Stream<Result<T>> array(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            parser.close();
+            throw new IOException("Not array type");
+        }
+        final Iterator<JsonNode> elements = new Iterator<JsonNode>() {
+            private JsonToken token;
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    if (token == null) {
+                        token = parser.nextToken();
+                    }
+                    return token != null && token != JsonToken.END_ARRAY;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public JsonNode next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    token = null;
+                    return parser.readValueAsTree();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+
+        return stream(elements, schema::apply, () -> {
+            try {
+                parser.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private <R> Stream<Result<T>> stream(Iterator<R> records, Task<R, T> task, Runnable close) {
+        final Iterator<Result<T>> results = ordered ? new Ordered<>(records, task) : new Unordered<>(records, task);
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(results,
+                Spliterator.NONNULL | (ordered ? Spliterator.ORDERED : 0)), false)
+                .onClose(close);
+    }
+
+    private <R> CompletableFuture<Result<T>> submit(long index, R record, Task<R, T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return Result.of(index, task.apply(record));
+            } catch (ValidationException e) {
+                return Result.error(index, e);
+            } catch (IOException e) {
+                return Result.error(index, new ValidationException(String.format("Malformed json: %s", e.getMessage())));
+            } catch (RuntimeException e) {
+                // a type failing unexpectedly, e.g. on integer overflow, fails only its own record
+                return Result.error(index, new ValidationException(String.format("Sanitization failed: %s", e), e));
+            }
+        }, executor);
+    }
+
+    @FunctionalInterface
+    private interface Task<R, T> {
+        T apply(R record) throws IOException, ValidationException;
+    }
+
+    /**
+     * Keeps up to {@code inFlight} records submitted and returns their results in input order.
+     */
+    private final class Ordered<R> implements Iterator<Result<T>> {
+        private final Iterator<R> records;
+        private final Task<R, T> task;
+        private final Deque<CompletableFuture<Result<T>>> pending;
+        private long index;
+
+        private Ordered(Iterator<R> records, Task<R, T> task) {
+            this.records = records;
+            this.task = task;
+            this.pending = new ArrayDeque<>(inFlight);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (pending.size() < inFlight && records.hasNext()) {
+                pending.add(submit(index++, records.next(), task));
+            }
+            return !pending.isEmpty();
+        }
+
+        @Override
+        public Result<T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return pending.poll().join();
+        }
+    }
+
+    /**
+     * Keeps up to {@code inFlight} records submitted and returns their results in completion order.
+     */
+    private final class Unordered<R> implements Iterator<Result<T>> {
+        private final Iterator<R> records;
+        private final Task<R, T> task;
+        private final BlockingQueue<CompletableFuture<Result<T>>> completed;
+        private int pending;
+        private long index;
+
+        private Unordered(Iterator<R> records, Task<R, T> task) {
+            this.records = records;
+            this.task = task;
+            this.completed = new LinkedBlockingQueue<>();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (pending < inFlight && records.hasNext()) {
+                final CompletableFuture<Result<T>> future = submit(index++, records.next(), task);
+                future.whenComplete((r, e) -> completed.add(future));
+                pending++;
+            }
+            return pending != 0;
+        }
+
+        @Override
+        public Result<T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                final CompletableFuture<Result<T>> future = completed.take();
+                pending--;
+                return future.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * Field metadata of a target class, including all of its superclasses, resolved once per class.
+ * A field declared in a subclass hides the same named field of its superclass.
+ */
+final class ClassFields {
+    private static final Logger LOGGER = Logger.getLogger(ClassFields.class.getName());
+
+    private static final ClassValue<ClassFields> CACHE = new ClassValue<ClassFields>() {
+        @Override
+        protected ClassFields computeValue(Class<?> type) {
+            return new ClassFields(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final Map<String, FieldAccessor> fields;
+    private final Set<String> missing;
+
+    private ClassFields(Class<?> type) {
+        final Map<String, FieldAccessor> map = new LinkedHashMap<>();
+
+        for (Class<?> tmp = type; ofNullable(tmp).isPresent(); tmp = tmp.getSuperclass()) {
+            for (Field field : tmp.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                    map.putIfAbsent(field.getName(), FieldAccessor.of(field));
+                }
+            }
+        }
+        this.type = type;
+        this.fields = Collections.unmodifiableMap(map);
+        this.missing = ConcurrentHashMap.newKeySet();
+    }
+
+    static ClassFields of(Class<?> type) {
+        return CACHE.get(type);
+    }
+
+    /**
+     * @return accessor of the field or {@code null}, a missing field is reported once per key
+     */
+    FieldAccessor get(String key) {
+        final FieldAccessor accessor = fields.get(key);
+
+        if (accessor == null && missing.add(String.valueOf(key))) {
+            LOGGER.warning(String.format("Field \"%s\" not found in %s, the key is ignored", key, type.getName()));
+        }
+        return accessor;
+    }
+
+    Map<String, FieldAccessor> all() {
+        return fields;
+    }
+}
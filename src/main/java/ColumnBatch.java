@@ -0,0 +1,412 @@
+import type.BaseType;
+import type.DoubleTransformer;
+import type.IntTransformer;
+import validation.ValidationError;
+
+import javax.xml.bind.ValidationException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fixed size batch of records stored as columns, filled by {@link ColumnarSanitizer}.
+ * Every mapped field is a column of primitives or of dictionary codes, plus a validity bitmap:
+ * bit {@code row} is set when the field was present and valid. Another bitmap marks the records without errors.
+ * Columns and bitmaps are exposed as their backing arrays, only the first {@link #size()} rows are meaningful.
+ */
+public final class ColumnBatch {
+    private final Map<String, Column> columns;
+    private final int capacity;
+    private final long[] validity;
+    private final List<ValidationError>[] errors;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    ColumnBatch(Map<String, BaseType<?>> types, int capacity) {
+        this.columns = new LinkedHashMap<>();
+        this.capacity = capacity;
+        this.validity = new long[words(capacity)];
+        this.errors = (List<ValidationError>[]) new List<?>[capacity];
+
+        types.forEach((key, type) -> columns.put(key, type instanceof IntTransformer
+                ? new IntColumn(key, (IntTransformer) type, capacity)
+                : type instanceof DoubleTransformer
+                ? new DoubleColumn(key, (DoubleTransformer) type, capacity)
+                : new StringColumn(key, type, capacity)));
+    }
+
+    private static int words(int bits) {
+        return (bits + Long.SIZE - 1) >>> 6;
+    }
+
+    private static boolean bit(long[] bitmap, int index) {
+        return (bitmap[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static void setBit(long[] bitmap, int index, boolean value) {
+        if (value) {
+            bitmap[index >>> 6] |= 1L << index;
+        } else {
+            bitmap[index >>> 6] &= ~(1L << index);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    /**
+     * @return whether the record has no errors
+     */
+    public boolean isValid(int row) {
+        return bit(validity, checkRow(row));
+    }
+
+    /**
+     * @return bitmap of the records without errors, bit {@code row % 64} of word {@code row / 64}
+     */
+    public long[] validity() {
+        return validity;
+    }
+
+    public List<ValidationError> errors(int row) {
+        return view(errors[checkRow(row)]);
+    }
+
+    private static List<ValidationError> view(List<ValidationError> errors) {
+        return errors != null ? Collections.unmodifiableList(errors) : Collections.emptyList();
+    }
+
+    public Collection<Column> columns() {
+        return Collections.unmodifiableCollection(columns.values());
+    }
+
+    public Column column(String key) {
+        final Column column = columns.get(key);
+        if (column == null) {
+            throw new IllegalArgumentException(String.format("No column \"%s\"", key));
+        }
+        return column;
+    }
+
+    public IntColumn ints(String key) {
+        return column(key, IntColumn.class);
+    }
+
+    public DoubleColumn doubles(String key) {
+        return column(key, DoubleColumn.class);
+    }
+
+    public StringColumn strings(String key) {
+        return column(key, StringColumn.class);
+    }
+
+    private <C extends Column> C column(String key, Class<C> kind) {
+        final Column column = column(key);
+        if (!kind.isInstance(column)) {
+            throw new IllegalArgumentException(String.format("Column \"%s\" is a %s", key, column.getClass().getSimpleName()));
+        }
+        return kind.cast(column);
+    }
+
+    /**
+     * Empties the batch for reuse, the dictionaries are reset too.
+     */
+    public void clear() {
+        Arrays.fill(validity, 0);
+        Arrays.fill(errors, 0, size, null);
+        for (Column column : columns.values()) {
+            column.clear();
+        }
+        size = 0;
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException(String.format("Row %d of %d", row, size));
+        }
+        return row;
+    }
+
+    Column find(String key) {
+        return columns.get(key);
+    }
+
+    /**
+     * @return index of the new record, it counts as valid until an error is added
+     */
+    int addRow() {
+        if (isFull()) {
+            throw new IllegalStateException("Batch is full");
+        }
+        setBit(validity, size, true);
+        return size++;
+    }
+
+    /**
+     * Drops the values of a record which could not be read and marks it invalid with {@code error}.
+     */
+    void invalidate(int row, ValidationError error) {
+        for (Column column : columns.values()) {
+            column.reset(row);
+        }
+        addError(row, error);
+    }
+
+    /**
+     * Takes back the last record, added by {@link #addRow()}.
+     */
+    void removeRow(int row) {
+        for (Column column : columns.values()) {
+            column.reset(row);
+        }
+        errors[row] = null;
+        setBit(validity, row, false);
+        size = row;
+    }
+
+    /**
+     * Drops the errors of {@code key} when a repeated key replaces its value, the record is valid again without others.
+     *
+     * @return number of errors of the record
+     */
+    int forget(int row, String key) {
+        final List<ValidationError> list = errors[row];
+        if (list == null) {
+            return 0;
+        }
+        list.removeIf(error -> key.equals(error.getField()));
+        if (list.isEmpty()) {
+            errors[row] = null;
+            setBit(validity, row, true);
+        }
+        return list.size();
+    }
+
+    /**
+     * @return number of errors of the record
+     */
+    int addError(int row, ValidationError error) {
+        if (errors[row] == null) {
+            errors[row] = new ArrayList<>(2);
+        }
+        errors[row].add(error);
+        setBit(validity, row, false);
+        return errors[row].size();
+    }
+
+    /**
+     * Values of a single field, rows where it is missing or invalid hold {@code 0} or no code.
+     */
+    public abstract static class Column {
+        private final String key;
+        private final long[] validity;
+
+        private Column(String key, int capacity) {
+            this.key = key;
+            this.validity = new long[words(capacity)];
+        }
+
+        public String key() {
+            return key;
+        }
+
+        /**
+         * @return whether the field of the record was present and valid
+         */
+        public boolean isValid(int row) {
+            return bit(validity, row);
+        }
+
+        /**
+         * @return bitmap of the valid rows, bit {@code row % 64} of word {@code row / 64}
+         */
+        public long[] validity() {
+            return validity;
+        }
+
+        /**
+         * Transforms {@code text} into the row, the row is invalid if it is rejected.
+         */
+        void set(int row, String text) throws ValidationException {
+            setBit(validity, row, false);
+            setValue(row, text);
+            setBit(validity, row, true);
+        }
+
+        abstract void setValue(int row, String text) throws ValidationException;
+
+        /**
+         * Makes the row missing.
+         */
+        void reset(int row) {
+            setBit(validity, row, false);
+        }
+
+        void clear() {
+            Arrays.fill(validity, 0);
+        }
+    }
+
+    public static final class IntColumn extends Column {
+        private final IntTransformer type;
+        private final int[] values;
+
+        private IntColumn(String key, IntTransformer type, int capacity) {
+            super(key, capacity);
+            this.type = type;
+            this.values = new int[capacity];
+        }
+
+        public int get(int row) {
+            return values[row];
+        }
+
+        public int[] values() {
+            return values;
+        }
+
+        @Override
+        void setValue(int row, String text) throws ValidationException {
+            values[row] = 0;
+            values[row] = type.transformInt(text);
+        }
+
+        @Override
+        void reset(int row) {
+            super.reset(row);
+            values[row] = 0;
+        }
+
+        @Override
+        void clear() {
+            super.clear();
+            Arrays.fill(values, 0);
+        }
+    }
+
+    public static final class DoubleColumn extends Column {
+        private final DoubleTransformer type;
+        private final double[] values;
+
+        private DoubleColumn(String key, DoubleTransformer type, int capacity) {
+            super(key, capacity);
+            this.type = type;
+            this.values = new double[capacity];
+        }
+
+        public double get(int row) {
+            return values[row];
+        }
+
+        public double[] values() {
+            return values;
+        }
+
+        @Override
+        void setValue(int row, String text) throws ValidationException {
+            values[row] = 0;
+            values[row] = type.transformDouble(text);
+        }
+
+        @Override
+        void reset(int row) {
+            super.reset(row);
+            values[row] = 0;
+        }
+
+        @Override
+        void clear() {
+            super.clear();
+            Arrays.fill(values, 0);
+        }
+    }
+
+    /**
+     * Dictionary coded text of any other type: each distinct value is stored once per batch,
+     * rows hold its index in {@link #dictionary()}.
+     */
+    public static final class StringColumn extends Column {
+        public static final int NO_CODE = -1;
+
+        private final BaseType<?> type;
+        private final int[] codes;
+        private final Map<String, Integer> index;
+        private final List<String> dictionary;
+
+        private StringColumn(String key, BaseType<?> type, int capacity) {
+            super(key, capacity);
+            this.type = type;
+            this.codes = new int[capacity];
+            this.index = new HashMap<>();
+            this.dictionary = new ArrayList<>();
+            Arrays.fill(codes, NO_CODE);
+        }
+
+        public String get(int row) {
+            final int code = codes[row];
+            return code == NO_CODE ? null : dictionary.get(code);
+        }
+
+        /**
+         * @return index of the value in {@link #dictionary()} or {@link #NO_CODE}
+         */
+        public int code(int row) {
+            return codes[row];
+        }
+
+        public int[] codes() {
+            return codes;
+        }
+
+        public List<String> dictionary() {
+            return Collections.unmodifiableList(dictionary);
+        }
+
+        @Override
+        void setValue(int row, String text) throws ValidationException {
+            codes[row] = NO_CODE;
+            final Object value = type.transform(text);
+            if (value != null) {
+                codes[row] = code(value.toString());
+            }
+        }
+
+        @Override
+        void reset(int row) {
+            super.reset(row);
+            codes[row] = NO_CODE;
+        }
+
+        private int code(String value) {
+            final Integer code = index.get(value);
+            if (code != null) {
+                return code;
+            }
+            index.put(value, dictionary.size());
+            dictionary.add(value);
+            return dictionary.size() - 1;
+        }
+
+        @Override
+        void clear() {
+            super.clear();
+            Arrays.fill(codes, NO_CODE);
+            index.clear();
+            dictionary.clear();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import type.BaseType;
+import validation.ErrorPath;
+import validation.ValidationError;
+
+import javax.xml.bind.ValidationException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * Batch mode of a {@link SanitizerSchema} which writes records straight into {@link ColumnBatch} columns,
+ * no target object is created:
+ * <pre>
+ * ColumnarSanitizer columnar = schema.columnar(4096);
+ *
+ * columnar.ndjson(in, batch -&gt; {
+ *     int[] foo = batch.ints("foo").values();
+ *     ...
+ * });
+ * </pre>
+ * Only top level single value mappings become columns: types implementing {@code IntTransformer} or
+ * {@code DoubleTransformer} fill {@code int[]} or {@code double[]} columns, other types are dictionary coded strings.
+ * Keys of other mappings are skipped. The error policy of the schema applies to every record.
+ * A key repeated within a record replaces its earlier value and errors, as in {@link SanitizerSchema}.
+ * A type failing unexpectedly, e.g. on integer overflow, makes its field and record invalid instead of failing the batch.
+ */
+public final class ColumnarSanitizer {
+    private final JsonFactory factory;
+    private final Map<String, BaseType<?>> types;
+    private final int batchSize;
+    private final int maxErrors;
+
+    ColumnarSanitizer(SanitizerSchema<?> schema, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        final Map<String, BaseType<?>> types = new LinkedHashMap<>();
+        for (FieldMapping mapping : schema.mappings()) {
+            if (mapping.scalar() != null) {
+                types.put(mapping.key, mapping.scalar());
+            } else {
+                types.remove(mapping.key);
+            }
+        }
+        this.factory = schema.mapper().getFactory();
+        this.types = Collections.unmodifiableMap(types);
+        this.batchSize = batchSize;
+        this.maxErrors = schema.policy().getMaxErrors();
+    }
+
+    /**
+     * @return empty batch of {@code batchSize} rows, one per thread as batches are not thread-safe
+     */
+    public ColumnBatch newBatch() {
+        return new ColumnBatch(types, batchSize);
+    }
+
+    /**
+     * Malformed json is an invalid record without values.
+     *
+     * @return whether the record is valid
+     * @throws IllegalStateException if the batch is full
+     */
+    public boolean append(ColumnBatch batch, String json) throws IOException {
+        final int row = batch.addRow();
+        try (JsonParser parser = factory.createParser(json)) {
+            return append(batch, row, parser, null);
+        }
+    }
+
+    /**
+     * Reads one record starting at {@code token}, the current token of {@code parser}.
+     * A value other than an object is an empty record, malformed json is an invalid record without values.
+     * If reading fails otherwise, the record is not added.
+     *
+     * @return whether the record is valid
+     */
+    public boolean append(ColumnBatch batch, JsonParser parser, JsonToken token) throws IOException {
+        return append(batch, batch.addRow(), parser, token);
+    }
+
+    /**
+     * @param token current token, {@code null} to read the first one
+     */
+    private boolean append(ColumnBatch batch, int row, JsonParser parser, JsonToken token) throws IOException {
+        try {
+            return read(batch, row, parser, token != null ? token : parser.nextToken());
+        } catch (JsonProcessingException e) {
+            batch.invalidate(row, ValidationError.of(ErrorPath.ROOT, ofNullable(parser.getCurrentName()).orElse(""),
+                    String.format("Malformed json: %s", e.getMessage())));
+            return false;
+        } catch (IOException | RuntimeException e) {
+            batch.removeRow(row);
+            throw e;
+        }
+    }
+
+    private boolean read(ColumnBatch batch, int row, JsonParser parser, JsonToken token) throws IOException {
+        if (token != JsonToken.START_OBJECT) {
+            if (token != null) {
+                parser.skipChildren();
+            }
+            return true;
+        }
+        int errors = 0;
+        for (JsonToken next = parser.nextToken(); next == JsonToken.FIELD_NAME; next = parser.nextToken()) {
+            final String key = parser.getCurrentName();
+            final ColumnBatch.Column column = errors < maxErrors ? batch.find(key) : null;
+            final JsonToken value = parser.nextToken();
+
+            if (column == null || value.isStructStart()) {
+                parser.skipChildren();
+            }
+            if (column != null) {
+                errors = batch.forget(row, key);
+                try {
+                    column.set(row, value.isStructStart() ? "" : parser.getText());
+                } catch (ValidationException e) {
+                    errors = batch.addError(row, ValidationError.of(ErrorPath.ROOT, key, ValidationError.NO_INDEX, e));
+                } catch (RuntimeException e) {
+                    errors = batch.addError(row, ValidationError.of(ErrorPath.ROOT, key, ValidationError.NO_INDEX,
+                            new ValidationException(String.format("Sanitization failed: %s", e), e)));
+                }
+            }
+        }
+        return errors == 0;
+    }
+
+    /**
+     * Reads newline delimited json, one record per line, blank lines are ignored. Every full batch and the last one
+     * are handed to {@code sink}, the same batch is cleared and refilled after {@code sink} returns.
+     * A malformed line is an invalid record, reading goes on with the next line.
+     *
+     * @return number of records
+     */
+    public long ndjson(InputStream in, Consumer<ColumnBatch> sink) throws IOException {
+        final ColumnBatch batch = newBatch();
+        long count = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                append(batch, line);
+                count++;
+                if (batch.isFull()) {
+                    sink.accept(batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (batch.size() > 0) {
+            sink.accept(batch);
+            batch.clear();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,67 @@
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+
+/**
+ * Setter and getter for a target field, resolved once into {@link MethodHandle}s.
+ * Unlike {@link Field#set(Object, Object)} there is no access check and no accessibility toggling per call.
+ * Accessors are created and cached by {@link ClassFields}.
+ */
+final class FieldAccessor {
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final Field field;
+    private final MethodHandle setter;
+    private final MethodHandle getter;
+    private final Object defaultValue;
+
+    private FieldAccessor(Field field) {
+        this.field = field;
+        this.defaultValue = field.getType().isPrimitive() ? Array.get(Array.newInstance(field.getType(), 1), 0) : null;
+        try {
+            field.setAccessible(true);
+            this.setter = MethodHandles.lookup().unreflectSetter(field).asType(SETTER_TYPE);
+            this.getter = MethodHandles.lookup().unreflectGetter(field).asType(GETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static FieldAccessor of(Field field) {
+        return new FieldAccessor(field);
+    }
+
+    Field field() {
+        return field;
+    }
+
+    Object get(Object target) {
+        try {
+            return (Object) getter.invokeExact(target);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Sets the default value of the field type: {@code null}, or zero for primitives.
+     */
+    void reset(Object target) {
+        set(target, defaultValue);
+    }
+
+    void set(Object target, Object value) {
+        try {
+            setter.invokeExact(target, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,468 @@
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import metrics.SanitizerListener;
+import metrics.SanitizerMetrics;
+import type.ArrayElements;
+import type.BaseType;
+import type.TypeRegistry;
+import validation.ErrorCollector;
+import validation.ErrorPath;
+import validation.ValidationError;
+
+import javax.xml.bind.ValidationException;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * Compiled mapping of a single json key onto a target field.
+ * All reflection and type instantiation is done once in {@link #of(Class, String, Object)},
+ * {@link #apply(JsonNode, Object, ErrorPath, ErrorCollector)} only does the per-document work.
+ */
+abstract class FieldMapping {
+    protected static final Object INVALID = new Object();
+
+    protected final String key;
+    protected final FieldAccessor accessor;
+    protected final Name name;
+
+    private FieldMapping(Name name, String key, FieldAccessor accessor) {
+        this.key = key;
+        this.accessor = accessor;
+        this.name = name;
+    }
+
+    /**
+     * @param owner class of the root target object
+     * @param type  {@link BaseType} class, array of it, alias registered in {@link TypeRegistry} or nested map of those
+     * @throws IllegalArgumentException if the values of an array type do not fit a primitive array field
+     */
+    static FieldMapping of(Class<?> owner, String key, Object type) throws IllegalAccessException, InstantiationException {
+        return of(owner, new Name(owner, null, key), key, type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static FieldMapping of(Class<?> owner, Name name, String key, Object type) throws IllegalAccessException, InstantiationException {
+        if (type instanceof String) {
+            final Class<?> resolved = TypeRegistry.getDefault().resolve((String) type);
+            return resolved != null ? of(owner, name, key, resolved)
+                    : new Unsupported(name, key, String.format("Type \"%s\" not support", type));
+        }
+        final boolean supported = Sanitizer.Types.MAP.is(type) || Sanitizer.Types.BASE.is(type) || Sanitizer.Types.BASE_ARRAY.is(type);
+        final FieldAccessor accessor = supported ? ClassFields.of(owner).get(key) : null;
+
+        if (supported && accessor == null) {
+            return new Missing(name, key);
+        } else if (Sanitizer.Types.MAP.is(type)) {
+            final Class<?> fieldType = accessor.field().getType();
+            SanitizerSchema<?> schema = SanitizerSchema.of(fieldType);
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) type).entrySet()) {
+                schema = schema.with(of(fieldType, new Name(null, name, entry.getKey()), entry.getKey(), entry.getValue()));
+            }
+            return new Nested(name, key, accessor, schema);
+        } else if (Sanitizer.Types.BASE.is(type)) {
+            return new Base(name, key, accessor, TypeRegistry.getDefault().get((Class<? extends BaseType<?>>) type));
+        } else if (Sanitizer.Types.BASE_ARRAY.is(type)) {
+            return new Array(name, key, accessor, TypeRegistry.getDefault().get((Class<? extends BaseType<?>>) ((Class<?>) type).getComponentType()));
+        }
+        return new Unsupported(name, key, String.format("Type %s not support",
+                ofNullable((Class<?>) type).map(Class::getSimpleName)
+                        .orElse("\"null\"")));
+    }
+
+    void apply(JsonNode node, Object target, ErrorPath path, ErrorCollector errors) {
+        final JsonNode currentNode = node.get(key);
+
+        if (ofNullable(currentNode).isPresent()) {
+            applyValue(currentNode, target, path, errors);
+        }
+    }
+
+    protected void applyValue(JsonNode currentNode, Object target, ErrorPath path, ErrorCollector errors) {
+        final Object value = value(currentNode, path, errors);
+
+        if (value != INVALID) {
+            set(target, value);
+        }
+    }
+
+    /**
+     * @return value of the field for {@code currentNode}, {@link #INVALID} if there are errors or nothing to assign
+     */
+    protected abstract Object value(JsonNode currentNode, ErrorPath path, ErrorCollector errors);
+
+    /**
+     * Merge patch of the mapped field with {@code value}: {@code null} resets the field, other values are validated
+     * as by {@link #apply(JsonNode, Object, ErrorPath, ErrorCollector)}. Assignments are added to {@code changes}
+     * instead of being made, so that nothing is changed by an invalid patch.
+     */
+    void patch(JsonNode value, Object target, ErrorPath path, ErrorCollector errors, List<Runnable> changes) {
+        if (value.isNull()) {
+            if (accessor != null) {
+                changes.add(() -> accessor.reset(target));
+            }
+            return;
+        }
+        final Object result = value(value, path, errors);
+        if (result != INVALID) {
+            changes.add(() -> set(target, result));
+        }
+    }
+
+    /**
+     * Streaming counterpart of {@link #apply(JsonNode, Object, ErrorPath, ErrorCollector)},
+     * called with the first token of the mapped value.
+     */
+    abstract void stream(JsonParser parser, JsonToken token, Object target, ErrorPath path, StreamingSanitizer<?> sanitizer) throws IOException;
+
+    /**
+     * Reports transformed values to {@link SanitizerListener}, the field name is only built while instrumentation is enabled.
+     */
+    protected void transformed(BaseType<?> type, int count, boolean failed) {
+        final SanitizerListener listener = SanitizerMetrics.listener();
+        if (listener != SanitizerListener.NOOP) {
+            listener.transformed(name.toString(), type.getClass(), count, failed);
+        }
+    }
+
+    protected void set(Object target, Object value) {
+        accessor.set(target, value);
+    }
+
+    /**
+     * Resets the mapped field of a pooled target, objects the value is built of go back to the {@code pool}.
+     */
+    void recycle(Object target, SanitizerPool<?> pool) {
+        if (accessor != null) {
+            accessor.reset(target);
+        }
+    }
+
+    /**
+     * @return schema of a nested object mapping
+     */
+    SanitizerSchema<?> nested() {
+        return null;
+    }
+
+    /**
+     * @return type of a single value mapping
+     */
+    BaseType<?> scalar() {
+        return null;
+    }
+
+    /**
+     * @return part of the value the mapping reads, {@code null} if it ignores the value
+     */
+    Projection projection() {
+        return Projection.ALL;
+    }
+
+    /**
+     * @return whether the mapped value is a {@link List} built by the mapping
+     */
+    boolean isList() {
+        return false;
+    }
+
+    private static class Base extends FieldMapping {
+        private final BaseType<?> baseType;
+
+        private Base(Name name, String key, FieldAccessor accessor, BaseType<?> baseType) {
+            super(name, key, accessor);
+            this.baseType = baseType;
+        }
+
+        @Override
+        BaseType<?> scalar() {
+            return baseType;
+        }
+
+        @Override
+        protected Object value(JsonNode currentNode, ErrorPath path, ErrorCollector errors) {
+            try {
+                final Object value = baseType.transform(currentNode.asText());
+                transformed(baseType, 1, false);
+                return value;
+            } catch (ValidationException e) {
+                errors.add(path, key, ValidationError.NO_INDEX, e);
+                transformed(baseType, 1, true);
+                return INVALID;
+            }
+        }
+
+        @Override
+        void stream(JsonParser parser, JsonToken token, Object target, ErrorPath path, StreamingSanitizer<?> sanitizer) throws IOException {
+            try {
+                set(target, baseType.transform(sanitizer.text(parser, token)));
+                transformed(baseType, 1, false);
+            } catch (ValidationException e) {
+                sanitizer.errors().add(path, key, ValidationError.NO_INDEX, e);
+                transformed(baseType, 1, true);
+            }
+        }
+    }
+
+    private static class Array extends FieldMapping {
+        private final ArrayElements.Factory elements;
+        private final BaseType<?> baseType;
+        private final boolean list;
+
+        private Array(Name name, String key, FieldAccessor accessor, BaseType<?> baseType) {
+            super(name, key, accessor);
+            this.elements = ArrayElements.factory(accessor.field().getType(), baseType);
+            this.baseType = baseType;
+            this.list = !ArrayElements.isPrimitive(accessor.field().getType());
+        }
+
+        @Override
+        boolean isList() {
+            return list;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        void recycle(Object target, SanitizerPool<?> pool) {
+            final Object value = list ? accessor.get(target) : null;
+            if (value instanceof List) {
+                pool.recycle(this, (List<Object>) value);
+            }
+            super.recycle(target, pool);
+        }
+
+        @Override
+        protected Object value(JsonNode currentNode, ErrorPath path, ErrorCollector errors) {
+            if (!currentNode.isArray()) {
+                errors.add(path, key, "Not array type");
+                return INVALID;
+            }
+            final ArrayElements array = elements.create(currentNode.size());
+            try {
+                for (JsonNode element : currentNode) {
+                    array.add(element.asText());
+                }
+                final Object value = array.build();
+                report(array.size(), false);
+                return value;
+            } catch (ValidationException e) {
+                errors.add(path, key, array.size(), e);
+                report(array.size() + 1, true);
+                return INVALID;
+            }
+        }
+
+        private void report(int size, boolean failed) {
+            final SanitizerListener listener = SanitizerMetrics.listener();
+            if (listener != SanitizerListener.NOOP) {
+                listener.transformed(name.toString(), baseType.getClass(), size, failed);
+                if (!failed) {
+                    listener.array(name.toString(), size);
+                }
+            }
+        }
+
+        @Override
+        void stream(JsonParser parser, JsonToken token, Object target, ErrorPath path, StreamingSanitizer<?> sanitizer) throws IOException {
+            if (token == JsonToken.START_ARRAY) {
+                sanitizer.push(new ArrayFrame(target, path, sanitizer));
+            } else {
+                sanitizer.errors().add(path, key, "Not array type");
+                sanitizer.skip(parser, token);
+            }
+        }
+
+        private final class ArrayFrame extends StreamingSanitizer.Frame {
+            private final Object target;
+            private final ErrorPath path;
+            private final StreamingSanitizer<?> sanitizer;
+            private final ArrayElements array;
+            private boolean failed;
+
+            private ArrayFrame(Object target, ErrorPath path, StreamingSanitizer<?> sanitizer) {
+                this.target = target;
+                this.path = path;
+                this.sanitizer = sanitizer;
+                final List<Object> pooled = list ? sanitizer.list(Array.this) : null;
+                this.array = pooled != null
+                        ? ArrayElements.objects(baseType, pooled) : elements.create(ArrayElements.DEFAULT_CAPACITY);
+            }
+
+            @Override
+            void accept(JsonParser parser, JsonToken token) throws IOException {
+                if (token == JsonToken.END_ARRAY) {
+                    sanitizer.pop();
+                    if (!failed) {
+                        set(target, array.build());
+                        report(array.size(), false);
+                    }
+                } else if (failed) {
+                    sanitizer.skip(parser, token);
+                } else {
+                    try {
+                        array.add(sanitizer.text(parser, token));
+                    } catch (ValidationException e) {
+                        sanitizer.errors().add(path, key, array.size(), e);
+                        report(array.size() + 1, true);
+                        failed = true;
+                    }
+                }
+            }
+        }
+    }
+
+    private static class Nested extends FieldMapping {
+        private final SanitizerSchema<?> schema;
+
+        private Nested(Name name, String key, FieldAccessor accessor, SanitizerSchema<?> schema) {
+            super(name, key, accessor);
+            this.schema = schema;
+        }
+
+        @Override
+        protected Object value(JsonNode currentNode, ErrorPath path, ErrorCollector errors) {
+            final int size = errors.size();
+            final ErrorPath child = path.child(key);
+            enter(child);
+            final Object value = schema.sanitize(currentNode, child, errors);
+
+            return errors.size() == size ? value : INVALID;
+        }
+
+        /**
+         * An object is merged into the current nested object, which is created if there is none.
+         */
+        @Override
+        void patch(JsonNode value, Object target, ErrorPath path, ErrorCollector errors, List<Runnable> changes) {
+            if (!value.isObject()) {
+                super.patch(value, target, path, errors, changes);
+                return;
+            }
+            final Object current = accessor.get(target);
+            final Object nested = current != null ? current : schema.newInstance();
+            schema.patch(value, nested, path.child(key), errors, changes);
+            if (current == null) {
+                changes.add(() -> set(target, nested));
+            }
+        }
+
+        @Override
+        void stream(JsonParser parser, JsonToken token, Object target, ErrorPath path, StreamingSanitizer<?> sanitizer) throws IOException {
+            if (token == JsonToken.START_OBJECT) {
+                final ErrorPath child = path.child(key);
+                enter(child);
+                sanitizer.pushObject(schema, child, target, this);
+            } else {
+                set(target, sanitizer.newInstance(schema));
+                sanitizer.skip(parser, token);
+            }
+        }
+
+        @Override
+        SanitizerSchema<?> nested() {
+            return schema;
+        }
+
+        private void enter(ErrorPath child) {
+            final SanitizerListener listener = SanitizerMetrics.listener();
+            if (listener != SanitizerListener.NOOP) {
+                listener.nested(name.toString(), child.depth());
+            }
+        }
+
+        @Override
+        Projection projection() {
+            return schema.projection();
+        }
+
+        @Override
+        void recycle(Object target, SanitizerPool<?> pool) {
+            final Object value = accessor.get(target);
+            if (value != null) {
+                pool.recycle(schema, value);
+            }
+            super.recycle(target, pool);
+        }
+    }
+
+    private static class Unsupported extends FieldMapping {
+        private final String message;
+
+        private Unsupported(Name name, String key, String message) {
+            super(name, key, null);
+            this.message = message;
+        }
+
+        @Override
+        protected Object value(JsonNode currentNode, ErrorPath path, ErrorCollector errors) {
+            errors.add(path, key, message);
+            return INVALID;
+        }
+
+        @Override
+        void stream(JsonParser parser, JsonToken token, Object target, ErrorPath path, StreamingSanitizer<?> sanitizer) throws IOException {
+            sanitizer.errors().add(path, key, message);
+            sanitizer.skip(parser, token);
+        }
+    }
+
+    /**
+     * Key without a target field, its value is ignored.
+     */
+    private static class Missing extends FieldMapping {
+
+        private Missing(Name name, String key) {
+            super(name, key, null);
+        }
+
+        @Override
+        Projection projection() {
+            return null;
+        }
+
+        @Override
+        protected Object value(JsonNode currentNode, ErrorPath path, ErrorCollector errors) {
+            return INVALID;
+        }
+
+        @Override
+        void stream(JsonParser parser, JsonToken token, Object target, ErrorPath path, StreamingSanitizer<?> sanitizer) throws IOException {
+            sanitizer.skip(parser, token);
+        }
+    }
+
+    /**
+     * Field name reported to {@link SanitizerListener}, {@code Root.nested/key}. It is built on first use, so that
+     * mappings compiled for a single document, as by {@link Sanitizer#map}, pay nothing for it while
+     * instrumentation is disabled.
+     */
+    private static final class Name {
+        private final Class<?> root;
+        private final Name parent;
+        private final String key;
+        private String value;
+
+        /**
+         * @param root   class of the root target object, {@code null} for a field of a nested object
+         * @param parent name of the nested object mapping, {@code null} for a field of the root object
+         */
+        private Name(Class<?> root, Name parent, String key) {
+            this.root = root;
+            this.parent = parent;
+            this.key = key;
+        }
+
+        @Override
+        public String toString() {
+            String value = this.value;
+            if (value == null) {
+                value = parent != null ? parent + "/" + key : root.getSimpleName() + "." + key;
+                this.value = value;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Byte level sources for Jackson's UTF-8 parser, so raw input never goes through an intermediate {@code String}.
+ */
+final class JsonInput {
+    /**
+     * Smaller files are read at once, mapping them costs more than the copy.
+     */
+    static final long MAP_THRESHOLD = 1 << 20;
+
+    private JsonInput() {
+    }
+
+    static JsonParser parser(JsonFactory factory, byte[] bytes, int offset, int length) throws IOException {
+        return factory.createParser(bytes, offset, length);
+    }
+
+    /**
+     * Heap buffers are parsed in place, direct ones are streamed through Jackson's input buffer.
+     * The position of {@code buffer} is not changed.
+     */
+    static JsonParser parser(JsonFactory factory, ByteBuffer buffer) throws IOException {
+        if (buffer.hasArray()) {
+            return factory.createParser(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+        return factory.createParser(new ByteBufferBackedInputStream(buffer.duplicate()));
+    }
+
+    static JsonParser parser(JsonFactory factory, InputStream in) throws IOException {
+        return factory.createParser(in);
+    }
+
+    /**
+     * Files from {@link #MAP_THRESHOLD} up to 2GB are memory mapped, the mapping is released with the buffer.
+     */
+    static JsonParser parser(JsonFactory factory, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size < MAP_THRESHOLD) {
+                return factory.createParser(Files.readAllBytes(path));
+            } else if (size <= Integer.MAX_VALUE) {
+                return parser(factory, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            }
+        }
+        return factory.createParser(Files.newInputStream(path));
+    }
+}
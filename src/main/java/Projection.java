@@ -0,0 +1,82 @@
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tree of the keys a set of {@link FieldMapping}s reads. A document is parsed into a {@link JsonNode} holding only
+ * those keys: values of other keys are skipped at token level, without building nodes or decoding their strings.
+ */
+final class Projection {
+    /**
+     * The whole value is read.
+     */
+    static final Projection ALL = new Projection(null);
+
+    private final Map<String, Projection> children;
+
+    private Projection(Map<String, Projection> children) {
+        this.children = children;
+    }
+
+    static Projection of(List<FieldMapping> mappings) {
+        final Map<String, Projection> children = new HashMap<>();
+
+        for (FieldMapping mapping : mappings) {
+            final Projection projection = mapping.projection();
+            if (projection != null) {
+                children.merge(mapping.key, projection, Projection::merge);
+            }
+        }
+        return new Projection(children);
+    }
+
+    private static Projection merge(Projection left, Projection right) {
+        if (left == ALL || right == ALL) {
+            return ALL;
+        }
+        final Map<String, Projection> children = new HashMap<>(left.children);
+        right.children.forEach((key, projection) -> children.merge(key, projection, Projection::merge));
+        return new Projection(children);
+    }
+
+    /**
+     * Reads the document and closes {@code parser}.
+     *
+     * @return projected document, {@link MissingNode} for empty input as {@code ObjectMapper.readTree(String)} gives
+     */
+    JsonNode read(ObjectMapper mapper, JsonParser parser) throws IOException {
+        try (JsonParser source = parser) {
+            final JsonToken token = source.nextToken();
+            if (token == null) {
+                return MissingNode.getInstance();
+            }
+            return read(mapper, source, token);
+        }
+    }
+
+    private JsonNode read(ObjectMapper mapper, JsonParser parser, JsonToken token) throws IOException {
+        if (this == ALL || token != JsonToken.START_OBJECT) {
+            return mapper.readTree(parser);
+        }
+        final ObjectNode node = mapper.getNodeFactory().objectNode();
+
+        for (JsonToken next = parser.nextToken(); next == JsonToken.FIELD_NAME; next = parser.nextToken()) {
+            final Projection child = children.get(parser.getCurrentName());
+            final JsonToken value = parser.nextToken();
+            if (child == null) {
+                parser.skipChildren();
+            } else {
+                node.set(parser.getCurrentName(), child.read(mapper, parser, value));
+            }
+        }
+        return node;
+    }
+}
@@ -0,0 +1,63 @@
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool of reusable objects. Free objects are kept in stacks striped by thread, a thread mostly
+ * takes back what it released and threads rarely contend. When a stripe is empty a new object is created,
+ * when it is full a released object is left to the garbage collector.
+ */
+final class Recycler<E> {
+    private static final int MAX_STRIPES = 16;
+
+    private final Supplier<E> factory;
+    private final Stripe[] stripes;
+    private final int mask;
+
+    Recycler(Supplier<E> factory, int maxIdle) {
+        final int count = Math.max(1, Math.min(MAX_STRIPES, Integer.highestOneBit(Runtime.getRuntime().availableProcessors())));
+        this.factory = factory;
+        this.stripes = new Stripe[count];
+        this.mask = count - 1;
+
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(Math.max(1, maxIdle / count));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    E get() {
+        final Object element = stripe().poll();
+        return element != null ? (E) element : factory.get();
+    }
+
+    void recycle(E element) {
+        stripe().offer(element);
+    }
+
+    private Stripe stripe() {
+        return stripes[(int) Thread.currentThread().getId() & mask];
+    }
+
+    private static final class Stripe {
+        private final Object[] elements;
+        private int size;
+
+        private Stripe(int capacity) {
+            this.elements = new Object[capacity];
+        }
+
+        private synchronized Object poll() {
+            if (size == 0) {
+                return null;
+            }
+            final Object element = elements[--size];
+            elements[size] = null;
+            return element;
+        }
+
+        private synchronized void offer(Object element) {
+            if (size < elements.length) {
+                elements[size++] = element;
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+import validation.SanitizationException;
+import validation.ValidationError;
+
+import javax.xml.bind.ValidationException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * Outcome of sanitizing a single record of a batch: either the target object
+ * or the error {@link Sanitizer#get()} would throw for it. Runtime exceptions of a type are wrapped into a
+ * {@link ValidationException} as well, so one record cannot fail the whole batch.
+ */
+public final class Result<T> {
+    private final long index;
+    private final T value;
+    private final ValidationException error;
+
+    private Result(long index, T value, ValidationException error) {
+        this.index = index;
+        this.value = value;
+        this.error = error;
+    }
+
+    static <T> Result<T> of(long index, T value) {
+        return new Result<>(index, value, null);
+    }
+
+    static <T> Result<T> error(long index, ValidationException error) {
+        return new Result<>(index, null, error);
+    }
+
+    /**
+     * @return zero based position of the record in the input
+     */
+    public long index() {
+        return index;
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+
+    /**
+     * @return error text, rendered on demand
+     */
+    public Optional<String> error() {
+        return ofNullable(error).map(ValidationException::getMessage);
+    }
+
+    /**
+     * @return structured validation errors, empty for a valid or malformed record
+     */
+    public List<ValidationError> errors() {
+        return error instanceof SanitizationException
+                ? ((SanitizationException) error).getErrors()
+                : Collections.emptyList();
+    }
+
+    public T get() throws ValidationException {
+        if (error != null) {
+            throw error;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,345 @@
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import type.BaseType;
+import type.DoubleTransformer;
+import type.IntTransformer;
+import type.LongTransformer;
+import type.TypeRegistry;
+import validation.ErrorCollector;
+import validation.ErrorPath;
+import validation.ErrorPolicy;
+import validation.SanitizationException;
+import validation.ValidationError;
+
+import javax.xml.bind.ValidationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * Sanitize-and-rewrite mode: the document is copied token by token from a {@link JsonParser} to a {@link JsonGenerator},
+ * mapped values are replaced by their transformed values and no target object is built:
+ * <pre>
+ * RewritingSanitizer sanitizer = RewritingSanitizer.create()
+ *         .map("foo", IntegerType.class)
+ *         .map("baz", PhoneType.class)
+ *         .unmapped(RewritingSanitizer.Unmapped.DROP);
+ *
+ * String clean = sanitizer.rewrite(json);
+ * </pre>
+ * Numbers are written as json numbers, strings as strings. A single pass is made and only the open objects are
+ * kept, so memory does not grow with the document. Errors are reported as by {@link SanitizerSchema#apply(String)}
+ * once the document is written; the output of an invalid document is incomplete and has to be discarded.
+ * Every occurrence of a repeated key is copied, so unlike {@link SanitizerSchema} every one of them has to be valid.
+ * Every {@code map} call returns a new instance, so an instance can be safely shared between threads.
+ */
+public final class RewritingSanitizer {
+    /**
+     * What happens to values of keys which are not mapped.
+     */
+    public enum Unmapped {
+        KEEP, DROP
+    }
+
+    private final Map<String, Rule> rules;
+    private final Unmapped unmapped;
+    private final ErrorPolicy policy;
+    private final ObjectMapper mapper;
+
+    private RewritingSanitizer(Map<String, Rule> rules, Unmapped unmapped, ErrorPolicy policy, ObjectMapper mapper) {
+        this.rules = rules;
+        this.unmapped = unmapped;
+        this.policy = policy;
+        this.mapper = mapper;
+    }
+
+    public static RewritingSanitizer create() {
+        return create(Sanitizer.DEFAULT_MAPPER);
+    }
+
+    public static RewritingSanitizer create(ObjectMapper mapper) {
+        return new RewritingSanitizer(Collections.emptyMap(), Unmapped.KEEP, ErrorPolicy.collectAll(), mapper);
+    }
+
+    public RewritingSanitizer map(String key, Class<?> type) throws IllegalAccessException, InstantiationException {
+        return with(key, rule(type));
+    }
+
+    /**
+     * @param alias type name registered in {@link TypeRegistry}, {@code "phone[]"} maps an array
+     */
+    public RewritingSanitizer map(String key, String alias) throws IllegalAccessException, InstantiationException {
+        return with(key, rule(alias));
+    }
+
+    /**
+     * Maps the keys of a nested object, the same way nested maps of {@link Sanitizer} are described.
+     */
+    public RewritingSanitizer map(String key, Map<String, Object> map) throws IllegalAccessException, InstantiationException {
+        return with(key, rule(map));
+    }
+
+    /**
+     * @param unmapped whether values of unmapped keys are copied, {@link Unmapped#KEEP} by default, or left out
+     */
+    public RewritingSanitizer unmapped(Unmapped unmapped) {
+        return new RewritingSanitizer(rules, unmapped, policy, mapper);
+    }
+
+    /**
+     * @param policy error budget of a document, once it is spent rewriting stops
+     */
+    public RewritingSanitizer policy(ErrorPolicy policy) {
+        return new RewritingSanitizer(rules, unmapped, policy, mapper);
+    }
+
+    private RewritingSanitizer with(String key, Rule rule) {
+        final Map<String, Rule> map = new HashMap<>(rules);
+        map.put(key, rule);
+        return new RewritingSanitizer(Collections.unmodifiableMap(map), unmapped, policy, mapper);
+    }
+
+    public String rewrite(String json) throws IOException, ValidationException {
+        final StringWriter writer = new StringWriter(json.length());
+        try (JsonParser parser = mapper.getFactory().createParser(json);
+             JsonGenerator generator = mapper.getFactory().createGenerator(writer)) {
+            rewrite(parser, generator);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Reads UTF-8 json from {@code in} and writes UTF-8 json to {@code out}, neither stream is closed.
+     */
+    public void rewrite(InputStream in, OutputStream out) throws IOException, ValidationException {
+        try (JsonParser parser = JsonInput.parser(mapper.getFactory(), in);
+             JsonGenerator generator = mapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            rewrite(parser, generator);
+        }
+    }
+
+    /**
+     * Rewrites the next value of {@code parser}, a root value other than an object is copied as it is.
+     * The generator is flushed but not closed.
+     *
+     * @throws SanitizationException once the value is written, if any mapped value is invalid
+     */
+    public void rewrite(JsonParser parser, JsonGenerator generator) throws IOException, ValidationException {
+        final ErrorCollector errors = new ErrorCollector(policy);
+        final JsonToken token = parser.nextToken();
+
+        if (token == JsonToken.START_OBJECT) {
+            object(parser, generator, rules, ErrorPath.ROOT, errors);
+        } else if (token != null) {
+            generator.copyCurrentStructure(parser);
+        }
+        generator.flush();
+        errors.throwIfAny();
+    }
+
+    private void object(JsonParser parser, JsonGenerator generator, Map<String, Rule> rules, ErrorPath path,
+                        ErrorCollector errors) throws IOException, ValidationException {
+        generator.writeStartObject();
+        for (JsonToken token = parser.nextToken(); token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+            final String key = parser.getCurrentName();
+            final Rule rule = rules.get(key);
+            final JsonToken value = parser.nextToken();
+
+            if (rule != null) {
+                generator.writeFieldName(key);
+                rule.rewrite(this, parser, value, generator, key, path, errors);
+                if (errors.isFull()) {
+                    errors.throwIfAny();
+                }
+            } else if (unmapped == Unmapped.KEEP) {
+                generator.writeFieldName(key);
+                generator.copyCurrentStructure(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * Text of a scalar as {@code JsonNode.asText()} gives it, containers have no text and are skipped.
+     */
+    private static String text(JsonParser parser, JsonToken token) throws IOException {
+        if (token.isStructStart()) {
+            parser.skipChildren();
+            return "";
+        }
+        return parser.getText();
+    }
+
+    private static Rule rule(Object type) throws IllegalAccessException, InstantiationException {
+        if (type instanceof String) {
+            final Class<?> resolved = TypeRegistry.getDefault().resolve((String) type);
+            return resolved != null ? rule(resolved) : new Unsupported(String.format("Type \"%s\" not support", type));
+        } else if (Sanitizer.Types.MAP.is(type)) {
+            final Map<String, Rule> rules = new HashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) type).entrySet()) {
+                rules.put((String) entry.getKey(), rule(entry.getValue()));
+            }
+            return new Nested(Collections.unmodifiableMap(rules));
+        } else if (Sanitizer.Types.BASE.is(type)) {
+            return new Scalar(base(type));
+        } else if (Sanitizer.Types.BASE_ARRAY.is(type)) {
+            return new Array(new Scalar(base(((Class<?>) type).getComponentType())));
+        }
+        return new Unsupported(String.format("Type %s not support",
+                ofNullable((Class<?>) type).map(Class::getSimpleName)
+                        .orElse("\"null\"")));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BaseType<?> base(Object type) throws IllegalAccessException, InstantiationException {
+        return TypeRegistry.getDefault().get((Class<? extends BaseType<?>>) type);
+    }
+
+    private abstract static class Rule {
+        abstract void rewrite(RewritingSanitizer sanitizer, JsonParser parser, JsonToken token, JsonGenerator generator,
+                              String key, ErrorPath path, ErrorCollector errors) throws IOException, ValidationException;
+    }
+
+    /**
+     * Single value, primitive capable types are written without boxing.
+     */
+    private static final class Scalar extends Rule {
+        private final BaseType<?> type;
+
+        private Scalar(BaseType<?> type) {
+            this.type = type;
+        }
+
+        @Override
+        void rewrite(RewritingSanitizer sanitizer, JsonParser parser, JsonToken token, JsonGenerator generator,
+                     String key, ErrorPath path, ErrorCollector errors) throws IOException {
+            try {
+                write(text(parser, token), generator);
+            } catch (ValidationException e) {
+                errors.add(path, key, ValidationError.NO_INDEX, e);
+                generator.writeNull();
+            }
+        }
+
+        private void write(String text, JsonGenerator generator) throws IOException, ValidationException {
+            if (type instanceof IntTransformer) {
+                generator.writeNumber(((IntTransformer) type).transformInt(text));
+            } else if (type instanceof LongTransformer) {
+                generator.writeNumber(((LongTransformer) type).transformLong(text));
+            } else if (type instanceof DoubleTransformer) {
+                generator.writeNumber(((DoubleTransformer) type).transformDouble(text));
+            } else {
+                writeValue(type.transform(text), generator);
+            }
+        }
+
+        private static void writeValue(Object value, JsonGenerator generator) throws IOException {
+            if (value == null) {
+                generator.writeNull();
+            } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+                generator.writeNumber(((Number) value).longValue());
+            } else if (value instanceof Double || value instanceof Float) {
+                generator.writeNumber(((Number) value).doubleValue());
+            } else if (value instanceof BigDecimal) {
+                generator.writeNumber((BigDecimal) value);
+            } else if (value instanceof BigInteger) {
+                generator.writeNumber((BigInteger) value);
+            } else if (value instanceof Boolean) {
+                generator.writeBoolean((Boolean) value);
+            } else if (value instanceof CharSequence) {
+                generator.writeString(value.toString());
+            } else {
+                generator.writeObject(value);
+            }
+        }
+    }
+
+    /**
+     * Array of values, elements after the first invalid one are copied as they are.
+     */
+    private static final class Array extends Rule {
+        private final Scalar element;
+
+        private Array(Scalar element) {
+            this.element = element;
+        }
+
+        @Override
+        void rewrite(RewritingSanitizer sanitizer, JsonParser parser, JsonToken token, JsonGenerator generator,
+                     String key, ErrorPath path, ErrorCollector errors) throws IOException {
+            if (token != JsonToken.START_ARRAY) {
+                errors.add(path, key, "Not array type");
+                generator.copyCurrentStructure(parser);
+                return;
+            }
+            generator.writeStartArray();
+            boolean failed = false;
+            int index = 0;
+            for (JsonToken next = parser.nextToken(); next != JsonToken.END_ARRAY; next = parser.nextToken(), index++) {
+                if (failed) {
+                    generator.copyCurrentStructure(parser);
+                    continue;
+                }
+                try {
+                    element.write(text(parser, next), generator);
+                } catch (ValidationException e) {
+                    errors.add(path, key, index, e);
+                    generator.writeNull();
+                    failed = true;
+                }
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    /**
+     * Nested object, a value of another kind is copied as it is.
+     */
+    private static final class Nested extends Rule {
+        private final Map<String, Rule> rules;
+
+        private Nested(Map<String, Rule> rules) {
+            this.rules = rules;
+        }
+
+        @Override
+        void rewrite(RewritingSanitizer sanitizer, JsonParser parser, JsonToken token, JsonGenerator generator,
+                     String key, ErrorPath path, ErrorCollector errors) throws IOException, ValidationException {
+            if (token == JsonToken.START_OBJECT) {
+                sanitizer.object(parser, generator, rules, path.child(key), errors);
+            } else {
+                generator.copyCurrentStructure(parser);
+            }
+        }
+    }
+
+    private static final class Unsupported extends Rule {
+        private final String message;
+
+        private Unsupported(String message) {
+            this.message = message;
+        }
+
+        @Override
+        void rewrite(RewritingSanitizer sanitizer, JsonParser parser, JsonToken token, JsonGenerator generator,
+                     String key, ErrorPath path, ErrorCollector errors) throws IOException {
+            errors.add(path, key, message);
+            generator.copyCurrentStructure(parser);
+        }
+    }
+}
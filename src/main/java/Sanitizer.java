@@ -1,130 +1,205 @@
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import type.BaseType;
+import validation.ErrorCollector;
+import validation.ErrorPath;
+import validation.ErrorPolicy;
+import validation.SanitizationException;
+import validation.ValidationError;
 
 import javax.xml.bind.ValidationException;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.StringReader;
-import java.lang.reflect.Field;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Stream;
 
 import static java.util.Optional.ofNullable;
 
+/**
+ * Single use sanitizer of one document, the mapping is described by {@code map} calls:
+ * <pre>
+ * Simple simple = Sanitizer.of(json, Simple.class)
+ *         .map("foo", IntegerType.class)
+ *         .map("baz", PhoneType.class)
+ *         .get();
+ * </pre>
+ * Raw input is parsed on {@link #get()} or {@link #errors()}, once every key is known: only the mapped keys are
+ * read into a tree, values of other keys are skipped while parsing, see {@link Projection}.
+ * An {@link InputStream} or a file is therefore read, and closed, only then, and malformed or unreadable input
+ * is reported by these methods rather than by {@code of}. Keys mapped afterwards see the projected document.
+ */
 public class Sanitizer<T> {
-    private final JsonNode node;
+    /**
+     * Shared mapper: {@link ObjectMapper} is thread-safe once configured, and reusing it keeps
+     * parser buffers and symbol tables warm across documents and threads.
+     */
+    static final ObjectMapper DEFAULT_MAPPER = new ObjectMapper();
+
+    private final ObjectMapper mapper;
+    private final Source source;
     private final T target;
-    private final StringBuffer error;
-
-    private Sanitizer(String json, Class<T> type) throws IOException, IllegalAccessException, InstantiationException {
-        this.node = new ObjectMapper().readTree(json);
+    private final ErrorCollector errors;
+    private final List<FieldMapping> pending;
+    private JsonNode node;
+    private ValidationException malformed;
+    private ValidationError malformedError;
+    private long start;
+
+    private Sanitizer(ObjectMapper mapper, Source source, JsonNode node, Class<T> type) throws IllegalAccessException, InstantiationException {
+        this.mapper = mapper;
+        this.source = source;
+        this.node = node;
         this.target = type.newInstance();
-        this.error = new StringBuffer();
+        this.errors = new ErrorCollector();
+        this.pending = new ArrayList<>();
+        this.start = SanitizerSchema.documentStart();
     }
 
-    public static <T> Sanitizer<T> of(String json, Class<T> type) throws IOException, InstantiationException, IllegalAccessException {
-        return new Sanitizer<>(json, type);
+    private static <T> Sanitizer<T> of(ObjectMapper mapper, Source source, Class<T> type) throws InstantiationException, IllegalAccessException {
+        return new Sanitizer<>(mapper, source, null, type);
     }
 
-    public Sanitizer<T> map(String key, Class type) throws IllegalAccessException, IOException, InstantiationException {
-        final BaseType baseType;
-        final JsonNode currentNode = node.get(key);
-        final Field field = getField(key);
-        String currentField = key;
-
-        if (ofNullable(currentNode).isPresent()) {
-            try {
-                if (Types.BASE.is(type)) {
-                    baseType = (BaseType) type.newInstance();
-                    applyFieldValue(field, baseType.transform(currentNode.asText()));
-                } else if (Types.BASE_ARRAY.is(type)) {
-                    final List<Object> list = new ArrayList<>();
-                    baseType = (BaseType) type.getComponentType()
-                            .newInstance();
-
-                    if (currentNode.isArray()) {
-                        int i = 0;
-                        for (Iterator<JsonNode> it = currentNode.iterator(); it.hasNext(); i++) {
-                            currentField = String.format("%s[%d]", key, i);
-                            list.add(baseType.transform(it.next().asText()));
-                        }
-                        applyFieldValue(field, list);
-                    } else {
-                        throw new ValidationException("Not array type");
-                    }
-                } else {
-                    throw new ValidationException(String.format("Type %s not support",
-                            ofNullable((Class<?>) type).map(Class::getSimpleName)
-                                    .orElse("\"null\"")));
-                }
-            } catch (ValidationException e) {
-                error.append(String.format("%s: %s", currentField, e.getMessage()))
-                        .append(System.getProperty("line.separator"));
-            }
-        }
+    public static <T> Sanitizer<T> of(String json, Class<T> type) throws InstantiationException, IllegalAccessException {
+        return of(json, type, DEFAULT_MAPPER);
+    }
+
+    public static <T> Sanitizer<T> of(String json, Class<T> type, ObjectMapper mapper) throws InstantiationException, IllegalAccessException {
+        return of(mapper, factory -> factory.createParser(json), type);
+    }
+
+    public static <T> Sanitizer<T> of(byte[] json, Class<T> type) throws InstantiationException, IllegalAccessException {
+        return of(json, 0, json.length, type);
+    }
+
+    /**
+     * Raw UTF-8 input is parsed by the byte based parser, without decoding it into a {@code String} first.
+     */
+    public static <T> Sanitizer<T> of(byte[] json, int offset, int length, Class<T> type) throws InstantiationException, IllegalAccessException {
+        return of(DEFAULT_MAPPER, factory -> JsonInput.parser(factory, json, offset, length), type);
+    }
+
+    /**
+     * Heap buffers are parsed in place, direct buffers are read without copying them to a {@code byte[]} first.
+     */
+    public static <T> Sanitizer<T> of(ByteBuffer json, Class<T> type) throws InstantiationException, IllegalAccessException {
+        return of(DEFAULT_MAPPER, factory -> JsonInput.parser(factory, json), type);
+    }
+
+    public static <T> Sanitizer<T> of(InputStream json, Class<T> type) throws InstantiationException, IllegalAccessException {
+        return of(DEFAULT_MAPPER, factory -> JsonInput.parser(factory, json), type);
+    }
+
+    /**
+     * Large files are memory mapped, see {@link JsonInput#MAP_THRESHOLD}.
+     */
+    public static <T> Sanitizer<T> of(Path json, Class<T> type) throws InstantiationException, IllegalAccessException {
+        return of(DEFAULT_MAPPER, factory -> JsonInput.parser(factory, json), type);
+    }
+
+    public static <T> Sanitizer<T> of(JsonNode node, Class<T> type) throws InstantiationException, IllegalAccessException {
+        return new Sanitizer<>(DEFAULT_MAPPER, null, node, type);
+    }
+
+    /**
+     * Sets the error budget, {@code map} calls after the budget is spent are skipped.
+     */
+    public Sanitizer<T> policy(ErrorPolicy policy) {
+        errors.setPolicy(policy);
         return this;
     }
 
-    @SuppressWarnings("unchecked")
+    public Sanitizer<T> map(String key, Class type) throws IllegalAccessException, IOException, InstantiationException {
+        return with(FieldMapping.of(target.getClass(), key, type));
+    }
+
+    /**
+     * @param alias type name registered in {@link type.TypeRegistry}, {@code "phone[]"} maps an array
+     */
+    public Sanitizer<T> map(String key, String alias) throws IllegalAccessException, IOException, InstantiationException {
+        return with(FieldMapping.of(target.getClass(), key, alias));
+    }
+
     public Sanitizer<T> map(String key, Map<String, Object> map) throws IllegalAccessException, IOException, InstantiationException {
-        final JsonNode currentNode = node.get(key);
-        final Field field = getField(key);
-
-        if (ofNullable(currentNode).isPresent()) {
-            if (Types.MAP.is(map)) {
-                Sanitizer sanitizer = Sanitizer.of(currentNode.toString(), field.getType());
-
-                for (Map.Entry<String, Object> entry : map.entrySet()) {
-                    if (Types.MAP.is(entry.getValue())) {
-                        sanitizer.map(entry.getKey(), (Map<String, Object>) entry.getValue());
-                    } else {
-                        sanitizer.map(entry.getKey(), (Class) entry.getValue());
-                    }
-                }
-                try {
-                    applyFieldValue(field, sanitizer.get());
-                } catch (ValidationException e) {
-                    new BufferedReader(new StringReader(e.getMessage())).lines().forEach(l ->
-                            error.append(String.format("%s/%s", key, l))
-                                    .append(System.getProperty("line.separator"))
-                    );
-                }
-            }
+        return with(FieldMapping.of(target.getClass(), key, map));
+    }
+
+    private Sanitizer<T> with(FieldMapping mapping) {
+        if (node == null) {
+            pending.add(mapping);
+        } else if (!errors.isFull()) {
+            mapping.apply(node, target, ErrorPath.ROOT, errors);
         }
         return this;
     }
 
-    private Field getField(String key) {
-        Class tmp = this.target.getClass();
-        Stream<Field> fields = Stream.of(tmp.getDeclaredFields());
-
-        while (ofNullable(tmp.getSuperclass()).isPresent()) {
-            tmp = tmp.getSuperclass();
-            fields = Stream.concat(fields, Stream.of(tmp.getDeclaredFields()));
+    /**
+     * Parses the projection of the mapped keys and applies the mappings.
+     */
+    private void resolve() {
+        if (node != null || malformed != null) {
+            return;
+        }
+        try {
+            node = Projection.of(pending).read(mapper, source.parser(mapper.getFactory()));
+        } catch (JsonProcessingException e) {
+            fail(String.format("Malformed json: %s", e.getMessage()));
+            return;
+        } catch (IOException e) {
+            fail(String.format("Unreadable json: %s", e.getMessage()));
+            return;
+        }
+        for (FieldMapping mapping : pending) {
+            if (errors.isFull()) {
+                break;
+            }
+            mapping.apply(node, target, ErrorPath.ROOT, errors);
         }
-        return fields
-                .filter(f -> key.equals(f.getName()))
-                .findFirst().orElse(null);
+        pending.clear();
     }
 
-    private void applyFieldValue(Field field, Object value) throws IllegalAccessException {
-        boolean accessible = field.isAccessible();
-        field.setAccessible(true);
-        field.set(this.target, value);
-        field.setAccessible(accessible);
+    private void fail(String message) {
+        malformed = new ValidationException(message);
+        malformedError = ValidationError.of(ErrorPath.ROOT, "", message);
     }
 
+    /**
+     * @throws SanitizationException if any mapped value is invalid, see {@link SanitizationException#getErrors()}
+     * @throws ValidationException if the input is not valid json or cannot be read
+     */
     public T get() throws ValidationException {
-        if (error.length() != 0) {
-            throw new ValidationException(error.toString());
+        resolve();
+        if (malformed != null) {
+            throw malformed;
         }
+        SanitizerSchema.documentEnd(start, errors.isEmpty());
+        start = 0;
+        errors.throwIfAny();
         return this.target;
     }
 
+    /**
+     * @return errors of the mapped values, for malformed input a single error without a field
+     */
+    public List<ValidationError> errors() {
+        resolve();
+        return malformedError != null ? Collections.singletonList(malformedError) : errors.getErrors();
+    }
+
+    /**
+     * Opens the raw input of a document.
+     */
+    @FunctionalInterface
+    private interface Source {
+        JsonParser parser(JsonFactory factory) throws IOException;
+    }
+
     public enum Types {
         BASE {
             @Override
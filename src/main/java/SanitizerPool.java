@@ -0,0 +1,148 @@
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import javax.xml.bind.ValidationException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reuse mode of {@link SanitizerSchema#stream(JsonParser)}: target objects, nested objects, lists of array fields
+ * and the per-document parsing state are taken from bounded pools instead of being allocated for every document.
+ * <pre>
+ * SanitizerPool&lt;Simple&gt; pool = schema.pool(1024);
+ *
+ * try (SanitizerPool.Lease&lt;Simple&gt; lease = pool.stream(json)) {
+ *     process(lease.get());
+ * }
+ * </pre>
+ * The target belongs to the caller until the lease is closed. Closing it resets every mapped field to
+ * {@code null} or zero and hands the target, its nested objects and its lists to the next document,
+ * so none of them may be used or kept afterwards; transformed values such as strings and numbers may be kept.
+ * Fields which are not mapped are left as they are. A pool is thread-safe, a lease is not.
+ */
+public final class SanitizerPool<T> {
+    private final SanitizerSchema<T> schema;
+    private final Map<SanitizerSchema<?>, Recycler<Object>> instances;
+    private final Map<FieldMapping, Recycler<List<Object>>> lists;
+    private final Recycler<StreamingSanitizer<T>> sanitizers;
+
+    SanitizerPool(SanitizerSchema<T> schema, int maxIdle) {
+        if (maxIdle < 1) {
+            throw new IllegalArgumentException("maxIdle must be positive");
+        }
+        this.schema = schema;
+        this.instances = new IdentityHashMap<>();
+        this.lists = new IdentityHashMap<>();
+        this.sanitizers = new Recycler<>(() -> new StreamingSanitizer<>(schema, true, this), maxIdle);
+        register(schema, maxIdle);
+    }
+
+    private void register(SanitizerSchema<?> schema, int maxIdle) {
+        if (instances.containsKey(schema)) {
+            return;
+        }
+        instances.put(schema, new Recycler<>(schema::newInstance, maxIdle));
+        for (FieldMapping mapping : schema.mappings()) {
+            if (mapping.nested() != null) {
+                register(mapping.nested(), maxIdle);
+            } else if (mapping.isList()) {
+                lists.put(mapping, new Recycler<>(ArrayList::new, maxIdle));
+            }
+        }
+    }
+
+    public Lease<T> stream(String json) throws IOException, ValidationException {
+        try (JsonParser parser = schema.mapper().getFactory().createParser(json)) {
+            return stream(parser);
+        }
+    }
+
+    public Lease<T> stream(byte[] json, int offset, int length) throws IOException, ValidationException {
+        try (JsonParser parser = JsonInput.parser(schema.mapper().getFactory(), json, offset, length)) {
+            return stream(parser);
+        }
+    }
+
+    /**
+     * @throws ValidationException as {@link SanitizerSchema#stream(JsonParser)} does, no lease is taken then
+     */
+    public Lease<T> stream(JsonParser parser) throws IOException, ValidationException {
+        final long start = SanitizerSchema.documentStart();
+        final StreamingSanitizer<T> sanitizer = sanitizers.get();
+        sanitizer.reset();
+        try {
+            for (JsonToken token = parser.nextToken(); token != null; token = parser.nextToken()) {
+                if (sanitizer.accept(parser, token)) {
+                    break;
+                }
+            }
+            SanitizerSchema.documentEnd(start, sanitizer.errors().isEmpty());
+            return new Lease<>(this, sanitizer.get());
+        } finally {
+            sanitizers.recycle(sanitizer);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    <S> S instance(SanitizerSchema<S> schema) {
+        final Recycler<Object> recycler = instances.get(schema);
+        return recycler != null ? (S) recycler.get() : schema.newInstance();
+    }
+
+    List<Object> list(FieldMapping mapping) {
+        final Recycler<List<Object>> recycler = lists.get(mapping);
+        return recycler != null ? recycler.get() : null;
+    }
+
+    void recycle(SanitizerSchema<?> schema, Object target) {
+        final Recycler<Object> recycler = instances.get(schema);
+        if (recycler != null) {
+            for (FieldMapping mapping : schema.mappings()) {
+                mapping.recycle(target, this);
+            }
+            recycler.recycle(target);
+        }
+    }
+
+    void recycle(FieldMapping mapping, List<Object> list) {
+        final Recycler<List<Object>> recycler = lists.get(mapping);
+        if (recycler != null) {
+            list.clear();
+            recycler.recycle(list);
+        }
+    }
+
+    /**
+     * Ownership of a sanitized target, see {@link SanitizerPool}.
+     */
+    public static final class Lease<T> implements AutoCloseable {
+        private final SanitizerPool<T> pool;
+        private T target;
+
+        private Lease(SanitizerPool<T> pool, T target) {
+            this.pool = pool;
+            this.target = target;
+        }
+
+        public T get() {
+            if (target == null) {
+                throw new IllegalStateException("Lease is closed");
+            }
+            return target;
+        }
+
+        /**
+         * Returns the target to the pool, closing a lease again has no effect.
+         */
+        @Override
+        public void close() {
+            if (target != null) {
+                pool.recycle(pool.schema, target);
+                target = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,318 @@
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import metrics.SanitizerMetrics;
+import validation.ErrorCollector;
+import validation.ErrorPath;
+import validation.ErrorPolicy;
+import validation.SanitizationException;
+
+import javax.xml.bind.ValidationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reusable, immutable counterpart of {@link Sanitizer}.
+ * The mapping is described once with the same fluent {@code map} calls and then applied to any number of documents:
+ * <pre>
+ * SanitizerSchema&lt;Simple&gt; schema = SanitizerSchema.of(Simple.class)
+ *         .map("foo", IntegerType.class)
+ *         .map("bar", StringType.class)
+ *         .map("baz", PhoneType.class);
+ *
+ * Simple simple = schema.apply(json);
+ * </pre>
+ * Every {@code map} call returns a new schema, so an instance can be safely shared between threads.
+ * <p>
+ * A key repeated within an object replaces its earlier value, as in {@code ObjectNode}: in tree and streaming mode alike
+ * only the last value is assigned and only its errors are reported. Under an error budget streaming stops as soon as
+ * the budget is spent, so there an invalid value can reject the document before a repeated key replaces it.
+ */
+public class SanitizerSchema<T> {
+    private final Constructor<T> constructor;
+    private final List<FieldMapping> mappings;
+    private final Map<String, FieldMapping> index;
+    private final ObjectMapper mapper;
+    private final ErrorPolicy policy;
+    private final Projection projection;
+
+    private SanitizerSchema(Constructor<T> constructor, List<FieldMapping> mappings, ObjectMapper mapper, ErrorPolicy policy) {
+        this.constructor = constructor;
+        this.mappings = mappings;
+        this.index = new HashMap<>();
+        this.mapper = mapper;
+        this.policy = policy;
+        this.projection = Projection.of(mappings);
+
+        for (FieldMapping mapping : mappings) {
+            index.put(mapping.key, mapping);
+        }
+    }
+
+    public static <T> SanitizerSchema<T> of(Class<T> type) throws InstantiationException {
+        return of(type, Sanitizer.DEFAULT_MAPPER);
+    }
+
+    public static <T> SanitizerSchema<T> of(Class<T> type, ObjectMapper mapper) throws InstantiationException {
+        try {
+            final Constructor<T> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return new SanitizerSchema<>(constructor, Collections.emptyList(), mapper, ErrorPolicy.collectAll());
+        } catch (NoSuchMethodException e) {
+            throw new InstantiationException(type.getName());
+        }
+    }
+
+    public SanitizerSchema<T> map(String key, Class<?> type) throws IllegalAccessException, InstantiationException {
+        return with(FieldMapping.of(constructor.getDeclaringClass(), key, type));
+    }
+
+    /**
+     * @param alias type name registered in {@link type.TypeRegistry}, {@code "phone[]"} maps an array
+     */
+    public SanitizerSchema<T> map(String key, String alias) throws IllegalAccessException, InstantiationException {
+        return with(FieldMapping.of(constructor.getDeclaringClass(), key, alias));
+    }
+
+    public SanitizerSchema<T> map(String key, Map<String, Object> map) throws IllegalAccessException, InstantiationException {
+        return with(FieldMapping.of(constructor.getDeclaringClass(), key, map));
+    }
+
+    SanitizerSchema<T> with(FieldMapping mapping) {
+        final List<FieldMapping> list = new ArrayList<>(mappings);
+        list.add(mapping);
+        return new SanitizerSchema<>(constructor, Collections.unmodifiableList(list), mapper, policy);
+    }
+
+    /**
+     * @param policy error budget of a document, once it is spent the rest of the document is not validated
+     */
+    public SanitizerSchema<T> policy(ErrorPolicy policy) {
+        return new SanitizerSchema<>(constructor, mappings, mapper, policy);
+    }
+
+    /**
+     * Only the mapped keys are read into a tree, values of other keys are skipped while parsing.
+     */
+    public T apply(String json) throws IOException, ValidationException {
+        return apply(projection.read(mapper, mapper.getFactory().createParser(json)));
+    }
+
+    public T apply(byte[] json) throws IOException, ValidationException {
+        return apply(json, 0, json.length);
+    }
+
+    /**
+     * Raw UTF-8 input is parsed by the byte based parser, without decoding it into a {@code String} first.
+     */
+    public T apply(byte[] json, int offset, int length) throws IOException, ValidationException {
+        return apply(projection.read(mapper, JsonInput.parser(mapper.getFactory(), json, offset, length)));
+    }
+
+    public T apply(ByteBuffer json) throws IOException, ValidationException {
+        return apply(projection.read(mapper, JsonInput.parser(mapper.getFactory(), json)));
+    }
+
+    public T apply(InputStream json) throws IOException, ValidationException {
+        return apply(projection.read(mapper, JsonInput.parser(mapper.getFactory(), json)));
+    }
+
+    /**
+     * Large files are memory mapped, see {@link JsonInput#MAP_THRESHOLD}.
+     */
+    public T apply(Path json) throws IOException, ValidationException {
+        return apply(projection.read(mapper, JsonInput.parser(mapper.getFactory(), json)));
+    }
+
+    /**
+     * @throws SanitizationException with the structured list of errors, its message is the same text as {@link Sanitizer#get()} reports
+     */
+    public T apply(JsonNode node) throws ValidationException {
+        final long start = documentStart();
+        final ErrorCollector errors = new ErrorCollector(policy);
+        final T target = sanitize(node, ErrorPath.ROOT, errors);
+
+        documentEnd(start, errors.isEmpty());
+        errors.throwIfAny();
+        return target;
+    }
+
+    /**
+     * Streaming mode: the document is read token by token and values are written straight into the target,
+     * no {@link JsonNode} tree is built and unmapped values are skipped.
+     */
+    public T stream(String json) throws IOException, ValidationException {
+        try (JsonParser parser = mapper.getFactory().createParser(json)) {
+            return stream(parser);
+        }
+    }
+
+    public T stream(byte[] json) throws IOException, ValidationException {
+        return stream(json, 0, json.length);
+    }
+
+    public T stream(byte[] json, int offset, int length) throws IOException, ValidationException {
+        try (JsonParser parser = JsonInput.parser(mapper.getFactory(), json, offset, length)) {
+            return stream(parser);
+        }
+    }
+
+    public T stream(ByteBuffer json) throws IOException, ValidationException {
+        try (JsonParser parser = JsonInput.parser(mapper.getFactory(), json)) {
+            return stream(parser);
+        }
+    }
+
+    public T stream(InputStream json) throws IOException, ValidationException {
+        try (JsonParser parser = JsonInput.parser(mapper.getFactory(), json)) {
+            return stream(parser);
+        }
+    }
+
+    public T stream(Path json) throws IOException, ValidationException {
+        try (JsonParser parser = JsonInput.parser(mapper.getFactory(), json)) {
+            return stream(parser);
+        }
+    }
+
+    public T stream(JsonParser parser) throws IOException, ValidationException {
+        final long start = documentStart();
+        final StreamingSanitizer<T> sanitizer = new StreamingSanitizer<>(this, true);
+
+        for (JsonToken token = parser.nextToken(); token != null; token = parser.nextToken()) {
+            if (sanitizer.accept(parser, token)) {
+                break;
+            }
+        }
+        documentEnd(start, sanitizer.errors().isEmpty());
+        return sanitizer.get();
+    }
+
+    /**
+     * Applies a JSON Merge Patch (RFC 7386) to a sanitized {@code target}. Only the keys present in the patch are
+     * validated, so the cost depends on the size of the patch: {@code null} resets a field, nested objects are patched
+     * in place and other values, arrays included, replace the field. Unmapped keys are ignored.
+     * Changes are made only if the whole patch is valid, otherwise {@code target} is left as it was.
+     *
+     * @return {@code target}
+     * @throws SanitizationException with the errors of the patch, their paths are relative to {@code target}
+     */
+    public T patch(T target, String patch) throws IOException, ValidationException {
+        return patch(target, mapper.readTree(patch));
+    }
+
+    public T patch(T target, JsonNode patch) throws ValidationException {
+        if (!patch.isObject()) {
+            throw new ValidationException("Merge patch must be an object");
+        }
+        final ErrorCollector errors = new ErrorCollector(policy);
+        final List<Runnable> changes = new ArrayList<>();
+
+        patch(patch, target, ErrorPath.ROOT, errors, changes);
+        errors.throwIfAny();
+        for (Runnable change : changes) {
+            change.run();
+        }
+        return target;
+    }
+
+    /**
+     * @param maxIdle upper bound of free objects of each kind kept for reuse
+     * @return reuse mode of {@link #stream(JsonParser)}, see {@link SanitizerPool}
+     */
+    public SanitizerPool<T> pool(int maxIdle) {
+        return new SanitizerPool<>(this, maxIdle);
+    }
+
+    /**
+     * @param batchSize rows of a {@link ColumnBatch}
+     * @return batch mode which fills columns instead of target objects, see {@link ColumnarSanitizer}
+     */
+    public ColumnarSanitizer columnar(int batchSize) {
+        return new ColumnarSanitizer(this, batchSize);
+    }
+
+    /**
+     * @return sanitizer of a single document fed in chunks from a non-blocking source, see {@link AsyncSanitizer}
+     */
+    public AsyncSanitizer<T> async() throws IOException {
+        return new AsyncSanitizer<>(this);
+    }
+
+    T sanitize(JsonNode node, ErrorPath path, ErrorCollector errors) {
+        final T target = newInstance();
+
+        for (FieldMapping mapping : mappings) {
+            if (errors.isFull()) {
+                break;
+            }
+            mapping.apply(node, target, path, errors);
+        }
+        return target;
+    }
+
+    /**
+     * @return start time of a document for {@link #documentEnd(long, boolean)}, {@code 0} while metrics are disabled
+     */
+    static long documentStart() {
+        return SanitizerMetrics.isEnabled() ? System.nanoTime() : 0;
+    }
+
+    static void documentEnd(long start, boolean valid) {
+        if (start != 0) {
+            SanitizerMetrics.listener().document(System.nanoTime() - start, valid);
+        }
+    }
+
+    void patch(JsonNode patch, Object target, ErrorPath path, ErrorCollector errors, List<Runnable> changes) {
+        for (Iterator<Map.Entry<String, JsonNode>> fields = patch.fields(); fields.hasNext() && !errors.isFull(); ) {
+            final Map.Entry<String, JsonNode> field = fields.next();
+            final FieldMapping mapping = index.get(field.getKey());
+            if (mapping != null) {
+                mapping.patch(field.getValue(), target, path, errors, changes);
+            }
+        }
+    }
+
+    ObjectMapper mapper() {
+        return mapper;
+    }
+
+    /**
+     * @return keys read by the mappings, nested ones included
+     */
+    Projection projection() {
+        return projection;
+    }
+
+    ErrorPolicy policy() {
+        return policy;
+    }
+
+    List<FieldMapping> mappings() {
+        return mappings;
+    }
+
+    FieldMapping mapping(String key) {
+        return index.get(key);
+    }
+
+    T newInstance() {
+        try {
+            return constructor.newInstance();
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
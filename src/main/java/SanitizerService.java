@@ -0,0 +1,370 @@
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import metrics.Histogram;
+
+import javax.xml.bind.ValidationException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Long running worker pool sanitizing documents with a {@link SanitizerSchema}:
+ * <pre>
+ * try (SanitizerService&lt;Simple&gt; service = SanitizerService.builder(schema)
+ *         .workers(4)
+ *         .queueCapacity(10_000)
+ *         .overflow(SanitizerService.Overflow.BLOCK)
+ *         .start()) {
+ *     service.submit(json).thenAccept(sink);
+ * }
+ * </pre>
+ * Documents wait in a bounded queue, what happens when it is full is set by {@link Overflow}. Each worker takes up to
+ * {@code batchSize} queued documents at once and sanitizes them with the same streaming state, so queue handoff and
+ * setup are paid per batch. Documents whose deadline passed while queued are not sanitized, their futures complete
+ * with a {@link TimeoutException}. Results complete on the worker threads, so dependent stages should be short.
+ */
+public final class SanitizerService<T> implements AutoCloseable {
+    /**
+     * Behaviour of {@code submit} when the queue is full.
+     */
+    public enum Overflow {
+        /**
+         * The future completes with a {@link RejectedExecutionException} right away.
+         */
+        REJECT,
+        /**
+         * The submitting thread waits for free space, which slows down the producer.
+         */
+        BLOCK,
+        /**
+         * The document is sanitized on the submitting thread.
+         */
+        CALLER_RUNS
+    }
+
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+    /**
+     * How often idle workers check whether the service is closed.
+     */
+    private static final long POLL_MILLIS = 50;
+
+    private final SanitizerSchema<T> schema;
+    private final JsonFactory factory;
+    private final BlockingQueue<Task<T>> queue;
+    private final Overflow overflow;
+    private final int batchSize;
+    private final long timeoutNanos;
+    private final List<Thread> workers;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final Histogram latency = new Histogram();
+    private final Histogram batches = new Histogram();
+    private volatile boolean closed;
+
+    private SanitizerService(Builder<T> builder) {
+        this.schema = builder.schema;
+        this.factory = schema.mapper().getFactory();
+        this.queue = new ArrayBlockingQueue<>(builder.queueCapacity);
+        this.overflow = builder.overflow;
+        this.batchSize = builder.batchSize;
+        this.timeoutNanos = builder.timeoutNanos;
+        this.workers = new ArrayList<>(builder.workers);
+
+        for (int i = 0; i < builder.workers; i++) {
+            final Thread worker = new Thread(new Worker(), "sanitizer-worker-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    public static <T> Builder<T> builder(SanitizerSchema<T> schema) {
+        return new Builder<>(schema);
+    }
+
+    /**
+     * Sanitizes {@code json} within the default timeout of the service.
+     */
+    public CompletableFuture<T> submit(String json) {
+        return submit(json, timeoutNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param timeout time the document may wait in the queue, it is not sanitized once it passed
+     */
+    public CompletableFuture<T> submit(String json, long timeout, TimeUnit unit) {
+        return submit(new Task<>(factory -> factory.createParser(json), deadline(unit.toNanos(timeout))));
+    }
+
+    public CompletableFuture<T> submit(byte[] json) {
+        return submit(json, timeoutNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * The array must not be changed until the future completes.
+     */
+    public CompletableFuture<T> submit(byte[] json, long timeout, TimeUnit unit) {
+        return submit(new Task<>(factory -> JsonInput.parser(factory, json, 0, json.length), deadline(unit.toNanos(timeout))));
+    }
+
+    private static long deadline(long timeoutNanos) {
+        return timeoutNanos == NO_DEADLINE ? NO_DEADLINE : System.nanoTime() + timeoutNanos;
+    }
+
+    private CompletableFuture<T> submit(Task<T> task) {
+        if (closed) {
+            return reject(task, "Service is closed");
+        }
+        if (queue.offer(task)) {
+            return queued(task);
+        }
+        switch (overflow) {
+            case BLOCK:
+                try {
+                    queue.put(task);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return reject(task, "Interrupted while waiting for queue space");
+                }
+                return queued(task);
+            case CALLER_RUNS:
+                sanitize(new StreamingSanitizer<>(schema, true), task);
+                return task.result;
+            default:
+                return reject(task, "Queue is full");
+        }
+    }
+
+    /**
+     * Takes the task back if the service was closed meanwhile, the workers may have left already.
+     */
+    private CompletableFuture<T> queued(Task<T> task) {
+        return closed && queue.remove(task) ? reject(task, "Service is closed") : task.result;
+    }
+
+    private CompletableFuture<T> reject(Task<T> task, String message) {
+        rejected.increment();
+        task.result.completeExceptionally(new RejectedExecutionException(message));
+        return task.result;
+    }
+
+    /**
+     * @return documents waiting in the queue
+     */
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    public long completedCount() {
+        return completed.sum();
+    }
+
+    /**
+     * @return documents completed with a validation error
+     */
+    public long failedCount() {
+        return failed.sum();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return documents whose deadline passed in the queue
+     */
+    public long expiredCount() {
+        return expired.sum();
+    }
+
+    /**
+     * @return time from {@code submit} to completion of sanitized documents in nanoseconds, queueing included
+     */
+    public Histogram latency() {
+        return latency;
+    }
+
+    /**
+     * @return number of documents a worker took at once
+     */
+    public Histogram batchSizes() {
+        return batches;
+    }
+
+    /**
+     * Stops accepting documents, completes the queued ones and waits for the workers to finish.
+     * If the calling thread is interrupted it stops waiting, the documents still queued are rejected.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // documents queued by a submit racing with close() after the workers left, or left by an interrupted close()
+        for (Task<T> task = queue.poll(); task != null; task = queue.poll()) {
+            reject(task, "Service is closed");
+        }
+    }
+
+    private void sanitize(StreamingSanitizer<T> sanitizer, Task<T> task) {
+        if (task.deadline != NO_DEADLINE && System.nanoTime() - task.deadline > 0) {
+            expired.increment();
+            task.result.completeExceptionally(new TimeoutException("Deadline passed in queue"));
+            return;
+        }
+        final long start = SanitizerSchema.documentStart();
+        T value = null;
+        ValidationException error = null;
+        sanitizer.reset();
+        try (JsonParser parser = task.source.parser(factory)) {
+            for (JsonToken token = parser.nextToken(); token != null; token = parser.nextToken()) {
+                if (sanitizer.accept(parser, token)) {
+                    break;
+                }
+            }
+            SanitizerSchema.documentEnd(start, sanitizer.errors().isEmpty());
+            value = sanitizer.get();
+        } catch (ValidationException e) {
+            error = e;
+        } catch (IOException e) {
+            error = new ValidationException(String.format("Malformed json: %s", e.getMessage()));
+        } catch (RuntimeException e) {
+            // a type failing unexpectedly, e.g. on integer overflow, fails only its own document
+            error = new ValidationException(String.format("Sanitization failed: %s", e), e);
+        }
+        // statistics are recorded before completion, so they include the document once its future is done
+        latency.record(System.nanoTime() - task.submitted);
+        if (error == null) {
+            completed.increment();
+            task.result.complete(value);
+        } else {
+            failed.increment();
+            task.result.completeExceptionally(error);
+        }
+    }
+
+    /**
+     * Drains the queue in batches with its own streaming state, until the service is closed and the queue is empty.
+     */
+    private final class Worker implements Runnable {
+        private final StreamingSanitizer<T> sanitizer = new StreamingSanitizer<>(schema, true);
+        private final List<Task<T>> batch = new ArrayList<>(batchSize);
+
+        @Override
+        public void run() {
+            try {
+                while (!closed || !queue.isEmpty()) {
+                    final Task<T> first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first != null) {
+                        batch.add(first);
+                        queue.drainTo(batch, batchSize - 1);
+                        batches.record(batch.size());
+                        for (Task<T> task : batch) {
+                            sanitize(sanitizer, task);
+                        }
+                        batch.clear();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Source {
+        JsonParser parser(JsonFactory factory) throws IOException;
+    }
+
+    private static final class Task<T> {
+        private final Source source;
+        private final long deadline;
+        private final long submitted;
+        private final CompletableFuture<T> result;
+
+        private Task(Source source, long deadline) {
+            this.source = source;
+            this.deadline = deadline;
+            this.submitted = System.nanoTime();
+            this.result = new CompletableFuture<>();
+        }
+    }
+
+    /**
+     * Settings of a {@link SanitizerService}, by default one worker per processor, a queue of 1024 documents
+     * rejecting on overflow, batches of up to 32 documents and no deadline.
+     */
+    public static final class Builder<T> {
+        private final SanitizerSchema<T> schema;
+        private int workers = Runtime.getRuntime().availableProcessors();
+        private int queueCapacity = 1024;
+        private Overflow overflow = Overflow.REJECT;
+        private int batchSize = 32;
+        private long timeoutNanos = NO_DEADLINE;
+
+        private Builder(SanitizerSchema<T> schema) {
+            this.schema = schema;
+        }
+
+        public Builder<T> workers(int workers) {
+            this.workers = positive(workers, "workers");
+            return this;
+        }
+
+        public Builder<T> queueCapacity(int queueCapacity) {
+            this.queueCapacity = positive(queueCapacity, "queueCapacity");
+            return this;
+        }
+
+        public Builder<T> overflow(Overflow overflow) {
+            this.overflow = overflow;
+            return this;
+        }
+
+        /**
+         * @param batchSize most documents a worker takes from the queue at once
+         */
+        public Builder<T> batchSize(int batchSize) {
+            this.batchSize = positive(batchSize, "batchSize");
+            return this;
+        }
+
+        /**
+         * @param timeout default time a document may wait in the queue
+         */
+        public Builder<T> timeout(long timeout, TimeUnit unit) {
+            this.timeoutNanos = unit.toNanos(positive(timeout, "timeout"));
+            return this;
+        }
+
+        private static int positive(int value, String name) {
+            return (int) positive((long) value, name);
+        }
+
+        private static long positive(long value, String name) {
+            if (value < 1) {
+                throw new IllegalArgumentException(name + " must be positive");
+            }
+            return value;
+        }
+
+        public SanitizerService<T> start() {
+            return new SanitizerService<>(this);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import validation.ErrorCollector;
+import validation.ErrorPath;
+
+import javax.xml.bind.ValidationException;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Token driven state machine behind {@link SanitizerSchema#stream(JsonParser)}.
+ * Every token of the document is passed to {@link #accept(JsonParser, JsonToken)} exactly once;
+ * open objects and arrays are kept on an explicit stack of frames instead of a {@code JsonNode} tree.
+ */
+final class StreamingSanitizer<T> {
+    private final SanitizerSchema<T> schema;
+    private final boolean blocking;
+    private final SanitizerPool<T> pool;
+    private final Deque<Frame> frames;
+    private final Deque<ObjectFrame> spareFrames;
+    private final ErrorCollector errors;
+    private T result;
+    private boolean done;
+
+    /**
+     * @param blocking whether the parser may be asked to {@link JsonParser#skipChildren()},
+     *                 otherwise unmapped containers are skipped token by token
+     */
+    StreamingSanitizer(SanitizerSchema<T> schema, boolean blocking) {
+        this(schema, blocking, null);
+    }
+
+    /**
+     * @param pool source of target objects and lists, the sanitizer itself is reused for many documents
+     */
+    StreamingSanitizer(SanitizerSchema<T> schema, boolean blocking, SanitizerPool<T> pool) {
+        this.schema = schema;
+        this.blocking = blocking;
+        this.pool = pool;
+        this.frames = new ArrayDeque<>();
+        this.spareFrames = new ArrayDeque<>();
+        this.errors = new ErrorCollector(schema.policy());
+    }
+
+    /**
+     * Prepares a pooled sanitizer for the next document.
+     */
+    void reset() {
+        frames.clear();
+        errors.clear();
+        result = null;
+        done = false;
+    }
+
+    /**
+     * @return {@code true} when the root value is complete or the error budget is spent
+     */
+    boolean accept(JsonParser parser, JsonToken token) throws IOException {
+        if (done) {
+            return true;
+        }
+        if (!frames.isEmpty()) {
+            frames.peek().accept(parser, token);
+        } else if (token == JsonToken.START_OBJECT) {
+            pushObject(schema, ErrorPath.ROOT, null, null);
+        } else {
+            result = newInstance(schema);
+            skip(parser, token);
+        }
+        done = frames.isEmpty() || errors.isFull();
+        return done;
+    }
+
+    T get() throws ValidationException {
+        errors.throwIfAny();
+        return result != null ? result : newInstance(schema);
+    }
+
+    ErrorCollector errors() {
+        return errors;
+    }
+
+    void push(Frame frame) {
+        frames.push(frame);
+    }
+
+    /**
+     * Starts a nested object of {@code schema}, it is assigned with {@code mapping} to {@code parent} once complete and valid.
+     * The root object has no mapping.
+     */
+    void pushObject(SanitizerSchema<?> schema, ErrorPath path, Object parent, FieldMapping mapping) {
+        final ObjectFrame frame = spareFrames.isEmpty() ? new ObjectFrame() : spareFrames.pop();
+        frame.init(schema, newInstance(schema), path, parent, mapping);
+        frames.push(frame);
+    }
+
+    <S> S newInstance(SanitizerSchema<S> schema) {
+        return pool != null ? pool.instance(schema) : schema.newInstance();
+    }
+
+    /**
+     * @return empty list for an array mapping, {@code null} if lists are not pooled
+     */
+    List<Object> list(FieldMapping mapping) {
+        return pool != null ? pool.list(mapping) : null;
+    }
+
+    void pop() {
+        frames.pop();
+    }
+
+    /**
+     * Skips the value starting at the current token.
+     */
+    void skip(JsonParser parser, JsonToken token) throws IOException {
+        if (token.isStructStart()) {
+            if (blocking) {
+                parser.skipChildren();
+            } else {
+                frames.push(new SkipFrame());
+            }
+        }
+    }
+
+    /**
+     * Text of the scalar value at the current token, the same {@code JsonNode.asText()} gives for a tree.
+     * Containers have no text and are skipped.
+     */
+    String text(JsonParser parser, JsonToken token) throws IOException {
+        if (token.isStructStart()) {
+            skip(parser, token);
+            return "";
+        }
+        return parser.getText();
+    }
+
+    abstract static class Frame {
+        abstract void accept(JsonParser parser, JsonToken token) throws IOException;
+    }
+
+    /**
+     * Object mapped by a schema, routes each field name to its {@link FieldMapping}.
+     * A key met again within the object replaces its earlier value as in tree mode: the errors of the earlier value
+     * are dropped and the later one is read. Frames are reused for the following objects once they end.
+     */
+    final class ObjectFrame extends Frame {
+        private final List<FieldMapping> seen = new ArrayList<>();
+        private SanitizerSchema<?> schema;
+        private Object target;
+        private ErrorPath path;
+        private Object parent;
+        private FieldMapping mapping;
+        private int errorCount;
+        private FieldMapping current;
+
+        private void init(SanitizerSchema<?> schema, Object target, ErrorPath path, Object parent, FieldMapping mapping) {
+            this.schema = schema;
+            this.target = target;
+            this.path = path;
+            this.parent = parent;
+            this.mapping = mapping;
+            this.errorCount = errors.size();
+            this.current = null;
+            this.seen.clear();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void end() {
+            pop();
+            if (errors.size() == errorCount) {
+                if (mapping == null) {
+                    result = (T) target;
+                } else {
+                    mapping.set(parent, target);
+                }
+            }
+            schema = null;
+            target = null;
+            parent = null;
+            spareFrames.push(this);
+        }
+
+        @Override
+        void accept(JsonParser parser, JsonToken token) throws IOException {
+            if (token == JsonToken.FIELD_NAME) {
+                current = schema.mapping(parser.getCurrentName());
+                if (current != null) {
+                    if (seen.contains(current)) {
+                        errors.forget(path, current.key);
+                    } else {
+                        seen.add(current);
+                    }
+                }
+            } else if (token == JsonToken.END_OBJECT) {
+                end();
+            } else if (current == null) {
+                skip(parser, token);
+            } else {
+                final FieldMapping mapping = current;
+                current = null;
+                mapping.stream(parser, token, target, path, StreamingSanitizer.this);
+            }
+        }
+    }
+
+    /**
+     * Nested structure which is not mapped, only the depth is tracked.
+     */
+    final class SkipFrame extends Frame {
+        private int depth = 1;
+
+        @Override
+        void accept(JsonParser parser, JsonToken token) {
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd() && --depth == 0) {
+                pop();
+            }
+        }
+    }
+}
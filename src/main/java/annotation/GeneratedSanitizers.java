@@ -0,0 +1,93 @@
+package annotation;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import type.ArrayElements;
+import type.BaseType;
+import validation.ErrorCollector;
+import validation.ErrorPath;
+
+import javax.xml.bind.ValidationException;
+import java.io.IOException;
+
+/**
+ * Parsing helpers called by the sanitizers {@link SanitizeProcessor} generates, not meant to be used directly.
+ * Values are read with the semantics of {@code Sanitizer}: containers in place of a scalar give {@code ""},
+ * an array is only assigned when all its elements are valid and errors are reported for the first invalid one.
+ */
+public final class GeneratedSanitizers {
+    private static final JsonFactory FACTORY = new JsonFactory();
+    private static final String NOT_ARRAY = "Not array type";
+
+    private GeneratedSanitizers() {
+    }
+
+    public static JsonParser parser(String json) throws IOException {
+        return FACTORY.createParser(json);
+    }
+
+    /**
+     * @return first token of the document, {@code null} for an empty one
+     */
+    public static JsonToken start(JsonParser parser) throws IOException {
+        final JsonToken token = parser.currentToken();
+        return token != null ? token : parser.nextToken();
+    }
+
+    public static String text(JsonParser parser, JsonToken token) throws IOException {
+        if (token.isStructStart()) {
+            parser.skipChildren();
+            return "";
+        }
+        return parser.getText();
+    }
+
+    public static <T> T skip(JsonParser parser, JsonToken token, T value) throws IOException {
+        if (token != null && token.isStructStart()) {
+            parser.skipChildren();
+        }
+        return value;
+    }
+
+    /**
+     * Reads an array with the accumulator the field type needs, see {@link ArrayElements#factory(Class, BaseType)}.
+     *
+     * @return {@code int[]}, {@code long[]}, {@code double[]} or {@code List}, {@code null} when the value is invalid
+     * and an error was reported
+     */
+    @SuppressWarnings("unchecked")
+    public static <A> A array(JsonParser parser, JsonToken token, ArrayElements.Factory elements,
+                              ErrorPath path, String key, ErrorCollector errors) throws IOException {
+        if (notArray(parser, token, path, key, errors)) {
+            return null;
+        }
+        final ArrayElements array = elements.create(ArrayElements.DEFAULT_CAPACITY);
+        for (JsonToken element = parser.nextToken(); element != JsonToken.END_ARRAY; element = parser.nextToken()) {
+            try {
+                array.add(text(parser, element));
+            } catch (ValidationException e) {
+                return invalid(parser, path, key, array.size(), e, errors);
+            }
+        }
+        return (A) array.build();
+    }
+
+    private static boolean notArray(JsonParser parser, JsonToken token, ErrorPath path, String key, ErrorCollector errors) throws IOException {
+        if (token == JsonToken.START_ARRAY) {
+            return false;
+        }
+        errors.add(path, key, NOT_ARRAY);
+        skip(parser, token, null);
+        return true;
+    }
+
+    private static <T> T invalid(JsonParser parser, ErrorPath path, String key, int index, ValidationException e,
+                                 ErrorCollector errors) throws IOException {
+        errors.add(path, key, index, e);
+        for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+            skip(parser, token, null);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,22 @@
+package annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maps a field onto a nested json object, sanitized by the generated sanitizer of the field type.
+ * The same access rules as for {@link Sanitize} apply.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface Nested {
+
+    /**
+     * @return json key, the field name by default
+     */
+    String key() default "";
+}
@@ -0,0 +1,29 @@
+package annotation;
+
+import type.BaseType;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maps a field onto a json key with a {@link BaseType}, the counterpart of {@code map("baz", PhoneType.class)}.
+ * {@code List}, {@code int[]}, {@code long[]} and {@code double[]} fields are mapped as arrays of the type.
+ * The field must not be final, private fields without an accessible setter are assigned through a method handle.
+ *
+ * @see SanitizeProcessor
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface Sanitize {
+
+    Class<? extends BaseType<?>> value();
+
+    /**
+     * @return json key, the field name by default
+     */
+    String key() default "";
+}
@@ -0,0 +1,432 @@
+package annotation;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a {@code <Target>Sanitizer} class next to every class with {@link Sanitize} or {@link Nested} fields,
+ * including inherited ones. The generated code parses the document token by token, switches on the key
+ * and assigns fields directly or through setters, no reflection is involved. A field it cannot reach, e.g. a private one
+ * without a setter, is a compile error, as well as two fields mapped to the same key. A key repeated in the document
+ * replaces its earlier value and errors, as in {@code SanitizerSchema}:
+ * <pre>
+ * Simple simple = SimpleSanitizer.apply(json);
+ * </pre>
+ * The processor is registered as a service and runs whenever the library is on the compile classpath.
+ */
+@SupportedAnnotationTypes({"annotation.Sanitize", "annotation.Nested"})
+public class SanitizeProcessor extends AbstractProcessor {
+    static final String SUFFIX = "Sanitizer";
+
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        final Set<TypeElement> targets = new LinkedHashSet<>();
+
+        for (TypeElement type : ElementFilter.typesIn(round.getRootElements())) {
+            if (type.getKind() == ElementKind.CLASS && !type.getModifiers().contains(Modifier.ABSTRACT) && !fields(type).isEmpty()) {
+                targets.add(type);
+            }
+        }
+        for (Element field : round.getElementsAnnotatedWith(Nested.class)) {
+            if (field.asType().getKind() == TypeKind.DECLARED) {
+                targets.add((TypeElement) ((DeclaredType) field.asType()).asElement());
+            }
+        }
+        for (TypeElement target : targets) {
+            if (generated.add(target.getQualifiedName().toString())) {
+                generate(target);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return annotated fields of {@code type} and its superclasses, a field hides the same name of a superclass
+     */
+    private List<VariableElement> fields(TypeElement type) {
+        final List<VariableElement> fields = new ArrayList<>();
+        final Set<String> names = new HashSet<>();
+
+        for (TypeElement current = type; current != null; current = superclass(current)) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                if (!field.getModifiers().contains(Modifier.STATIC) && names.add(field.getSimpleName().toString())
+                        && (field.getAnnotation(Sanitize.class) != null || field.getAnnotation(Nested.class) != null)) {
+                    fields.add(field);
+                }
+            }
+        }
+        return fields;
+    }
+
+    private TypeElement superclass(TypeElement type) {
+        final TypeMirror superclass = type.getSuperclass();
+        return superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+    }
+
+    private void generate(TypeElement target) {
+        final String name = sanitizerName(target);
+        final SourceWriter source = new SourceWriter(packageOf(target), name, target.getQualifiedName().toString());
+        final Map<String, VariableElement> keys = new HashMap<>();
+        boolean valid = checkConstructor(target, target, target);
+
+        for (VariableElement field : fields(target)) {
+            final String key = key(field);
+            final VariableElement mapped = keys.putIfAbsent(key, field);
+            if (mapped != null) {
+                error(field, "Key \"" + key + "\" is already mapped to field " + mapped.getSimpleName());
+                valid = false;
+            } else {
+                valid &= field(source, target, field, key);
+            }
+        }
+        if (!valid) {
+            return;
+        }
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualified(packageOf(target), name), target).openWriter()) {
+            writer.write(source.toString());
+        } catch (IOException e) {
+            error(target, "Unable to write " + name + ": " + e.getMessage());
+        }
+    }
+
+    private boolean field(SourceWriter source, TypeElement target, VariableElement field, String key) {
+        final Sanitize sanitize = field.getAnnotation(Sanitize.class);
+        final String assign = assignment(target, field);
+        final TypeMirror fieldType = field.asType();
+
+        if (assign == null) {
+            error(field, field.getModifiers().contains(Modifier.FINAL)
+                    ? "Field " + field.getSimpleName() + " must not be final, or needs a setter"
+                    : "Field " + field.getSimpleName() + " is not accessible from the generated sanitizer, add a setter or widen its access");
+            return false;
+        } else if (sanitize == null) {
+            if (fieldType.getKind() != TypeKind.DECLARED) {
+                error(field, "@Nested field must be an object");
+                return false;
+            }
+            final TypeElement nested = (TypeElement) ((DeclaredType) fieldType).asElement();
+            if (!checkConstructor(nested, target, field)) {
+                return false;
+            }
+            source.nested(key, assign, nested.getQualifiedName().toString(), qualified(packageOf(nested), sanitizerName(nested)));
+            return true;
+        }
+
+        final TypeElement type = (TypeElement) ((DeclaredType) typeOf(sanitize)).asElement();
+        if (!checkConstructor(type, target, field)) {
+            return false;
+        }
+        final String typeName = type.getQualifiedName().toString();
+        final String constant = source.constant(field.getSimpleName().toString(), typeName);
+
+        if (fieldType.getKind() == TypeKind.ARRAY) {
+            final TypeKind component = ((ArrayType) fieldType).getComponentType().getKind();
+            if (component != TypeKind.INT && component != TypeKind.LONG && component != TypeKind.DOUBLE) {
+                error(field, "Only int[], long[] and double[] arrays are supported, use List for other elements");
+                return false;
+            } else if (!fits(component, type)) {
+                error(field, "Type " + type.getSimpleName() + " cannot fill " + fieldType);
+                return false;
+            }
+            source.array(key, assign, fieldType.toString(), fieldType + ".class", constant);
+        } else if (isList(fieldType)) {
+            source.array(key, assign, fieldType.toString(), List.class.getName() + ".class", constant);
+        } else {
+            source.base(key, assign, constant);
+        }
+        return true;
+    }
+
+    /**
+     * Compile time counterpart of {@code ArrayElements.fits}: a primitive array needs a type producing that primitive,
+     * or {@code int} which widens exactly.
+     */
+    private boolean fits(TypeKind component, TypeElement type) {
+        if (implementsTransformer(type, "IntTransformer")) {
+            return true;
+        } else if (component == TypeKind.LONG) {
+            return implementsTransformer(type, "LongTransformer");
+        }
+        return component == TypeKind.DOUBLE && implementsTransformer(type, "DoubleTransformer");
+    }
+
+    private boolean implementsTransformer(TypeElement type, String name) {
+        final TypeElement transformer = processingEnv.getElementUtils().getTypeElement("type." + name);
+        return transformer != null && processingEnv.getTypeUtils().isAssignable(type.asType(), transformer.asType());
+    }
+
+    private boolean isList(TypeMirror type) {
+        final TypeElement list = processingEnv.getElementUtils().getTypeElement(List.class.getName());
+        return processingEnv.getTypeUtils().isSameType(processingEnv.getTypeUtils().erasure(type),
+                processingEnv.getTypeUtils().erasure(list.asType()));
+    }
+
+    private static TypeMirror typeOf(Sanitize sanitize) {
+        try {
+            sanitize.value();
+            throw new IllegalStateException("Type of @Sanitize is expected to be a source type");
+        } catch (MirroredTypeException e) {
+            return e.getTypeMirror();
+        }
+    }
+
+    /**
+     * @return statement assigning the field of {@code target}, {@code null} if the field cannot be assigned
+     */
+    private String assignment(TypeElement target, VariableElement field) {
+        final String name = field.getSimpleName().toString();
+        final String setter = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(target))) {
+            if (method.getSimpleName().contentEquals(setter) && method.getParameters().size() == 1
+                    && !method.getModifiers().contains(Modifier.STATIC) && accessible(method, target)
+                    && processingEnv.getTypeUtils().isSameType(method.getParameters().get(0).asType(), field.asType())) {
+                return "target." + setter + "(%s);";
+            }
+        }
+        if (!field.getModifiers().contains(Modifier.FINAL) && accessible(field, target)) {
+            return "target." + name + " = %s;";
+        }
+        return null;
+    }
+
+    private boolean checkConstructor(TypeElement type, TypeElement target, Element element) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && accessible(constructor, target)
+                    && !type.getModifiers().contains(Modifier.ABSTRACT)) {
+                return true;
+            }
+        }
+        error(element, type.getSimpleName() + " must be a concrete class with an accessible no-arg constructor");
+        return false;
+    }
+
+    /**
+     * Generated sanitizers live in the package of their target.
+     */
+    private boolean accessible(Element member, TypeElement target) {
+        final Set<Modifier> modifiers = member.getModifiers();
+        final Element enclosing = member.getEnclosingElement();
+        final TypeElement owner = enclosing instanceof TypeElement ? (TypeElement) enclosing : (TypeElement) member;
+        return !modifiers.contains(Modifier.PRIVATE)
+                && (modifiers.contains(Modifier.PUBLIC) || packageOf(owner).equals(packageOf(target)));
+    }
+
+    private String packageOf(TypeElement type) {
+        final PackageElement element = processingEnv.getElementUtils().getPackageOf(type);
+        return element.isUnnamed() ? "" : element.getQualifiedName().toString();
+    }
+
+    private static String key(VariableElement field) {
+        final Sanitize sanitize = field.getAnnotation(Sanitize.class);
+        final String key = sanitize != null ? sanitize.key() : field.getAnnotation(Nested.class).key();
+        return key.isEmpty() ? field.getSimpleName().toString() : key;
+    }
+
+    /**
+     * {@code Outer.Inner} gets {@code Outer_InnerSanitizer}.
+     */
+    private static String sanitizerName(TypeElement type) {
+        String name = type.getSimpleName().toString();
+        for (Element outer = type.getEnclosingElement(); outer instanceof TypeElement; outer = outer.getEnclosingElement()) {
+            name = outer.getSimpleName() + "_" + name;
+        }
+        return name + SUFFIX;
+    }
+
+    private static String qualified(String packageName, String name) {
+        return packageName.isEmpty() ? name : packageName + "." + name;
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    /**
+     * Source of a single generated sanitizer: type constants and one {@code case} per key.
+     */
+    private static final class SourceWriter {
+        private final String packageName;
+        private final String name;
+        private final String target;
+        private final StringBuilder constants = new StringBuilder();
+        private final StringBuilder cases = new StringBuilder();
+        private final Set<String> constantNames = new HashSet<>();
+
+        private SourceWriter(String packageName, String name, String target) {
+            this.packageName = packageName;
+            this.name = name;
+            this.target = target;
+        }
+
+        private String constant(String field, String type) {
+            final String constant = constantName(field);
+            constants.append("    private static final ").append(type).append(' ').append(constant)
+                    .append(" = new ").append(type).append("();\n");
+            return constant;
+        }
+
+
+        private String constantName(String field) {
+            final String base = field.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase();
+            String constant = base;
+            for (int i = 2; !constantNames.add(constant); i++) {
+                constant = base + "_" + i;
+            }
+            return constant;
+        }
+
+        private void base(String key, String assign, String constant) {
+            open(key);
+            cases.append("                    try {\n")
+                    .append("                        ").append(String.format(assign,
+                            constant + ".transform(GeneratedSanitizers.text(parser, token))")).append('\n')
+                    .append("                    } catch (ValidationException e) {\n")
+                    .append("                        errors.add(path, ").append(literal(key)).append(", ValidationError.NO_INDEX, e);\n")
+                    .append("                    }\n");
+            close();
+        }
+
+        /**
+         * @param fieldClass class literal of the erased field type
+         */
+        private void array(String key, String assign, String fieldType, String fieldClass, String type) {
+            final String elements = constantName(type + "_ELEMENTS");
+            constants.append("    private static final ArrayElements.Factory ").append(elements)
+                    .append(" = ArrayElements.factory(").append(fieldClass).append(", ").append(type).append(");\n");
+            open(key);
+            cases.append("                    final ").append(fieldType).append(" value = GeneratedSanitizers.array(parser, token, ")
+                    .append(elements).append(", path, ").append(literal(key)).append(", errors);\n")
+                    .append("                    if (value != null) {\n")
+                    .append("                        ").append(String.format(assign, "value")).append('\n')
+                    .append("                    }\n");
+            close();
+        }
+
+        private void nested(String key, String assign, String type, String sanitizer) {
+            open(key);
+            cases.append("                    if (token == JsonToken.START_OBJECT) {\n")
+                    .append("                        final int size = errors.size();\n")
+                    .append("                        final ").append(type).append(" value = ").append(sanitizer)
+                    .append(".read(parser, path.child(").append(literal(key)).append("), errors);\n")
+                    .append("                        if (errors.size() == size) {\n")
+                    .append("                            ").append(String.format(assign, "value")).append('\n')
+                    .append("                        }\n")
+                    .append("                    } else {\n")
+                    .append("                        ").append(String.format(assign,
+                            "GeneratedSanitizers.skip(parser, token, new " + type + "())")).append('\n')
+                    .append("                    }\n");
+            close();
+        }
+
+        private void open(String key) {
+            cases.append("                case ").append(literal(key)).append(": {\n")
+                    .append("                    errors.forget(path, ").append(literal(key)).append(");\n");
+        }
+
+        private void close() {
+            cases.append("                    break;\n")
+                    .append("                }\n");
+        }
+
+        private static String literal(String value) {
+            return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder source = new StringBuilder();
+            if (!packageName.isEmpty()) {
+                source.append("package ").append(packageName).append(";\n\n");
+            }
+            source.append("import annotation.GeneratedSanitizers;\n")
+                    .append("import com.fasterxml.jackson.core.JsonParser;\n")
+                    .append("import com.fasterxml.jackson.core.JsonToken;\n")
+                    .append("import type.ArrayElements;\n")
+                    .append("import validation.ErrorCollector;\n")
+                    .append("import validation.ErrorPath;\n")
+                    .append("import validation.ErrorPolicy;\n")
+                    .append("import validation.ValidationError;\n\n")
+                    .append("import javax.xml.bind.ValidationException;\n")
+                    .append("import java.io.IOException;\n\n")
+                    .append("/**\n")
+                    .append(" * Sanitizer of {@link ").append(target).append("}, generated by {@link annotation.SanitizeProcessor}.\n")
+                    .append(" */\n")
+                    .append("public final class ").append(name).append(" {\n")
+                    .append(constants).append('\n')
+                    .append("    private ").append(name).append("() {\n")
+                    .append("    }\n\n")
+                    .append("    public static ").append(target).append(" apply(String json) throws IOException, ValidationException {\n")
+                    .append("        return apply(json, ErrorPolicy.collectAll());\n")
+                    .append("    }\n\n")
+                    .append("    public static ").append(target).append(" apply(String json, ErrorPolicy policy) throws IOException, ValidationException {\n")
+                    .append("        try (JsonParser parser = GeneratedSanitizers.parser(json)) {\n")
+                    .append("            return apply(parser, policy);\n")
+                    .append("        }\n")
+                    .append("    }\n\n")
+                    .append("    public static ").append(target).append(" apply(JsonParser parser, ErrorPolicy policy) throws IOException, ValidationException {\n")
+                    .append("        final ErrorCollector errors = new ErrorCollector(policy);\n")
+                    .append("        final JsonToken token = GeneratedSanitizers.start(parser);\n")
+                    .append("        final ").append(target).append(" target = token == JsonToken.START_OBJECT\n")
+                    .append("                ? read(parser, ErrorPath.ROOT, errors)\n")
+                    .append("                : GeneratedSanitizers.skip(parser, token, new ").append(target).append("());\n\n")
+                    .append("        errors.throwIfAny();\n")
+                    .append("        return target;\n")
+                    .append("    }\n\n")
+                    .append("    /**\n")
+                    .append("     * Reads the object from the current {@code START_OBJECT} up to its {@code END_OBJECT},\n")
+                    .append("     * or returns as soon as the error budget of {@code errors} is spent.\n")
+                    .append("     */\n")
+                    .append("    public static ").append(target).append(" read(JsonParser parser, ErrorPath path, ErrorCollector errors) throws IOException {\n")
+                    .append("        final ").append(target).append(" target = new ").append(target).append("();\n\n")
+                    .append("        for (JsonToken token = parser.nextToken(); token == JsonToken.FIELD_NAME; token = parser.nextToken()) {\n")
+                    .append("            if (errors.isFull()) {\n")
+                    .append("                return target;\n")
+                    .append("            }\n")
+                    .append("            final String key = parser.getCurrentName();\n")
+                    .append("            token = parser.nextToken();\n")
+                    .append("            switch (key) {\n")
+                    .append(cases)
+                    .append("                default:\n")
+                    .append("                    GeneratedSanitizers.skip(parser, token, null);\n")
+                    .append("            }\n")
+                    .append("        }\n")
+                    .append("        return target;\n")
+                    .append("    }\n")
+                    .append("}\n");
+            return source.toString();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free log-linear histogram of non-negative values in the spirit of HdrHistogram: every power of two is split
+ * into {@value #SUB_BUCKETS} linear buckets, so any recorded value is reported within about 3% of its magnitude.
+ * Recording is a single atomic increment, reading is not a consistent snapshot under concurrent updates.
+ */
+public final class Histogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+
+    public void record(long value) {
+        final long positive = Math.max(0, value);
+        counts.incrementAndGet(index(positive));
+        count.increment();
+        sum.add(positive);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public double mean() {
+        final long count = count();
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    /**
+     * @param percentile from {@code 0} to {@code 100}
+     * @return upper bound of the bucket holding the percentile, {@code 0} when empty
+     */
+    public long percentile(double percentile) {
+        final long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(total * Math.min(100, percentile) / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        return max();
+    }
+
+    public long max() {
+        for (int i = BUCKETS - 1; i >= 0; i--) {
+            if (counts.get(i) > 0) {
+                return upperBound(i);
+            }
+        }
+        return 0;
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int shift = exponent - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        final int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        final long lower = ((long) (SUB_BUCKETS | (index & (SUB_BUCKETS - 1)))) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
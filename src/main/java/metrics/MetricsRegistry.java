@@ -0,0 +1,130 @@
+package metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * {@link SanitizerListener} aggregating the hooks into counters and histograms:
+ * documents with their latency, transforms and failures per type and per field, array sizes and nesting depth.
+ */
+public class MetricsRegistry implements SanitizerListener {
+    private final LongAdder documents = new LongAdder();
+    private final LongAdder invalidDocuments = new LongAdder();
+    private final Histogram latency = new Histogram();
+    private final Histogram depth = new Histogram();
+    private final ConcurrentMap<String, Counter> types = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> fields = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Histogram> arrays = new ConcurrentHashMap<>();
+
+    @Override
+    public void transformed(String field, Class<?> type, int values, boolean failed) {
+        counter(types, type.getSimpleName()).add(values, failed);
+        counter(fields, field).add(1, failed);
+    }
+
+    @Override
+    public void array(String field, int size) {
+        arrays.computeIfAbsent(field, key -> new Histogram()).record(size);
+    }
+
+    @Override
+    public void nested(String field, int depth) {
+        this.depth.record(depth);
+    }
+
+    @Override
+    public void document(long nanos, boolean valid) {
+        documents.increment();
+        if (!valid) {
+            invalidDocuments.increment();
+        }
+        latency.record(nanos);
+    }
+
+    private static Counter counter(ConcurrentMap<String, Counter> counters, String key) {
+        final Counter counter = counters.get(key);
+        return counter != null ? counter : counters.computeIfAbsent(key, k -> new Counter());
+    }
+
+    public long documents() {
+        return documents.sum();
+    }
+
+    public long invalidDocuments() {
+        return invalidDocuments.sum();
+    }
+
+    /**
+     * @return document latency in nanoseconds
+     */
+    public Histogram latency() {
+        return latency;
+    }
+
+    /**
+     * @return depth of nested objects
+     */
+    public Histogram depth() {
+        return depth;
+    }
+
+    /**
+     * @return transform counters by simple name of the type, a value counts once per array element
+     */
+    public Map<String, Counter> types() {
+        return Collections.unmodifiableMap(new TreeMap<>(types));
+    }
+
+    /**
+     * @return transform counters by field, a value counts once per document
+     */
+    public Map<String, Counter> fields() {
+        return Collections.unmodifiableMap(new TreeMap<>(fields));
+    }
+
+    /**
+     * @return sizes of valid arrays by field
+     */
+    public Map<String, Histogram> arrays() {
+        return Collections.unmodifiableMap(new TreeMap<>(arrays));
+    }
+
+    static <V> Map<String, Long> totals(Map<String, V> map, Function<V, Long> value) {
+        final Map<String, Long> totals = new TreeMap<>();
+        map.forEach((key, v) -> totals.put(key, value.apply(v)));
+        return totals;
+    }
+
+    /**
+     * Transformed values and the rejected ones.
+     */
+    public static final class Counter {
+        private final LongAdder values = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+
+        private void add(int count, boolean failed) {
+            values.add(count);
+            if (failed) {
+                failures.increment();
+            }
+        }
+
+        public long values() {
+            return values.sum();
+        }
+
+        public long failures() {
+            return failures.sum();
+        }
+
+        public double failureRate() {
+            final long values = values();
+            return values == 0 ? 0 : (double) failures() / values;
+        }
+    }
+}
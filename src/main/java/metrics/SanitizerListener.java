@@ -0,0 +1,45 @@
+package metrics;
+
+/**
+ * Instrumentation hooks of the sanitizers, installed with {@link SanitizerMetrics#install(SanitizerListener)}.
+ * Hooks are called on the sanitizing thread in the middle of the hot path, so they have to be cheap and thread-safe.
+ * Fields are named after the class of the root target object and the json keys leading to them, e.g.
+ * {@code Simple.foo} or {@code SimpleNested.nested/foo}, so a nested class mapped under two keys gives two fields.
+ */
+public interface SanitizerListener {
+    /**
+     * Does nothing, installed by default.
+     */
+    SanitizerListener NOOP = new SanitizerListener() {
+    };
+
+    /**
+     * A mapped value was transformed.
+     *
+     * @param values number of transformed values, elements for an array, {@code 1} otherwise
+     * @param failed whether the value was rejected, an array is rejected on its first invalid element
+     */
+    default void transformed(String field, Class<?> type, int values, boolean failed) {
+    }
+
+    /**
+     * A valid array was assigned.
+     */
+    default void array(String field, int size) {
+    }
+
+    /**
+     * A nested object was entered, {@code depth} is {@code 1} for an object of the root.
+     */
+    default void nested(String field, int depth) {
+    }
+
+    /**
+     * A document was sanitized.
+     *
+     * @param nanos time until the result was ready, counted from the first token in streaming modes,
+     *              from the parsed tree for {@code SanitizerSchema.apply} and from creation for {@code Sanitizer}
+     */
+    default void document(long nanos, boolean valid) {
+    }
+}
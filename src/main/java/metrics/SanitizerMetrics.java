@@ -0,0 +1,149 @@
+package metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Switch of the sanitizer instrumentation. Disabled by default: the hooks then go to {@link SanitizerListener#NOOP},
+ * the hot path pays a field read and an empty call which the JIT inlines away.
+ * <pre>
+ * MetricsRegistry registry = SanitizerMetrics.enable();
+ * </pre>
+ */
+public final class SanitizerMetrics {
+    public static final String OBJECT_NAME = "sanitizer:type=Metrics";
+
+    private static volatile SanitizerListener listener = SanitizerListener.NOOP;
+
+    private SanitizerMetrics() {
+    }
+
+    public static SanitizerListener listener() {
+        return listener;
+    }
+
+    public static boolean isEnabled() {
+        return listener != SanitizerListener.NOOP;
+    }
+
+    /**
+     * Installs a custom listener, {@link SanitizerListener#NOOP} disables instrumentation.
+     */
+    public static void install(SanitizerListener listener) {
+        SanitizerMetrics.listener = listener;
+    }
+
+    /**
+     * Installs a new {@link MetricsRegistry} and exports it via JMX under {@value #OBJECT_NAME}, replacing a previous one.
+     */
+    public static synchronized MetricsRegistry enable() {
+        final MetricsRegistry registry = new MetricsRegistry();
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            final ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(new MXBean(registry), name);
+        } catch (InstanceAlreadyExistsException | InstanceNotFoundException ignored) {
+            // registered or unregistered concurrently by another class loader, the local registry still works
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+        install(registry);
+        return registry;
+    }
+
+    public static synchronized void disable() {
+        install(SanitizerListener.NOOP);
+        try {
+            final ObjectName name = new ObjectName(OBJECT_NAME);
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (InstanceNotFoundException ignored) {
+            // already unregistered
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class MXBean implements SanitizerMetricsMXBean {
+        private final MetricsRegistry registry;
+
+        private MXBean(MetricsRegistry registry) {
+            this.registry = registry;
+        }
+
+        private static long micros(long nanos) {
+            return TimeUnit.NANOSECONDS.toMicros(nanos);
+        }
+
+        @Override
+        public long getDocuments() {
+            return registry.documents();
+        }
+
+        @Override
+        public long getInvalidDocuments() {
+            return registry.invalidDocuments();
+        }
+
+        @Override
+        public double getLatencyMean() {
+            return registry.latency().mean() / 1000;
+        }
+
+        @Override
+        public long getLatencyP50() {
+            return micros(registry.latency().percentile(50));
+        }
+
+        @Override
+        public long getLatencyP99() {
+            return micros(registry.latency().percentile(99));
+        }
+
+        @Override
+        public long getLatencyP999() {
+            return micros(registry.latency().percentile(99.9));
+        }
+
+        @Override
+        public long getLatencyMax() {
+            return micros(registry.latency().max());
+        }
+
+        @Override
+        public long getMaxDepth() {
+            return registry.depth().max();
+        }
+
+        @Override
+        public Map<String, Long> getTransforms() {
+            return MetricsRegistry.totals(registry.types(), MetricsRegistry.Counter::values);
+        }
+
+        @Override
+        public Map<String, Long> getTransformFailures() {
+            return MetricsRegistry.totals(registry.types(), MetricsRegistry.Counter::failures);
+        }
+
+        @Override
+        public Map<String, Long> getFieldFailures() {
+            return MetricsRegistry.totals(registry.fields(), MetricsRegistry.Counter::failures);
+        }
+
+        @Override
+        public Map<String, Long> getArraySizeP99() {
+            return MetricsRegistry.totals(registry.arrays(), histogram -> histogram.percentile(99));
+        }
+    }
+}
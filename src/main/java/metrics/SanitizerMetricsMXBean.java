@@ -0,0 +1,34 @@
+package metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of a {@link MetricsRegistry}, registered as {@value SanitizerMetrics#OBJECT_NAME}.
+ * Latencies are in microseconds.
+ */
+public interface SanitizerMetricsMXBean {
+
+    long getDocuments();
+
+    long getInvalidDocuments();
+
+    double getLatencyMean();
+
+    long getLatencyP50();
+
+    long getLatencyP99();
+
+    long getLatencyP999();
+
+    long getLatencyMax();
+
+    long getMaxDepth();
+
+    Map<String, Long> getTransforms();
+
+    Map<String, Long> getTransformFailures();
+
+    Map<String, Long> getFieldFailures();
+
+    Map<String, Long> getArraySizeP99();
+}
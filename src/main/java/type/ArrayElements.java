@@ -0,0 +1,182 @@
+package type;
+
+import javax.xml.bind.ValidationException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Accumulates the transformed elements of a json array into the representation of the target field:
+ * {@code int[]}, {@code long[]} and {@code double[]} are filled without boxing, anything else gets a {@link List}.
+ * Primitive buffers are created with the expected size and grow by doubling when the size is not known upfront.
+ * A primitive array is only filled by a type producing that primitive, or {@code int} which widens exactly.
+ * Shared by the reflective mappings and the generated sanitizers.
+ */
+public abstract class ArrayElements {
+    public static final int DEFAULT_CAPACITY = 16;
+
+    protected int size;
+
+    ArrayElements() {
+    }
+
+    public abstract void add(String value) throws ValidationException;
+
+    public abstract Object build();
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Chooses the accumulator for a field type once, when the mapping is compiled.
+     *
+     * @throws IllegalArgumentException if values of {@code baseType} do not fit a primitive {@code fieldType}
+     */
+    public static Factory factory(Class<?> fieldType, BaseType<?> baseType) {
+        if (!fits(fieldType, baseType)) {
+            throw new IllegalArgumentException(String.format("Type %s cannot fill %s",
+                    baseType.getClass().getSimpleName(), fieldType.getSimpleName()));
+        }
+        if (fieldType == int[].class) {
+            final IntTransformer transformer = (IntTransformer) baseType;
+            return capacity -> new Ints(transformer, capacity);
+        } else if (fieldType == long[].class) {
+            final LongTransformer transformer = baseType instanceof LongTransformer
+                    ? (LongTransformer) baseType : ((IntTransformer) baseType)::transformInt;
+            return capacity -> new Longs(transformer, capacity);
+        } else if (fieldType == double[].class) {
+            final DoubleTransformer transformer = baseType instanceof DoubleTransformer
+                    ? (DoubleTransformer) baseType : ((IntTransformer) baseType)::transformInt;
+            return capacity -> new Doubles(transformer, capacity);
+        }
+        return capacity -> new Objects(baseType, new ArrayList<>(capacity));
+    }
+
+    /**
+     * @return whether {@code baseType} produces values a field of {@code fieldType} holds without loss
+     */
+    public static boolean fits(Class<?> fieldType, BaseType<?> baseType) {
+        if (fieldType == int[].class) {
+            return baseType instanceof IntTransformer;
+        } else if (fieldType == long[].class) {
+            return baseType instanceof LongTransformer || baseType instanceof IntTransformer;
+        } else if (fieldType == double[].class) {
+            return baseType instanceof DoubleTransformer || baseType instanceof IntTransformer;
+        }
+        return true;
+    }
+
+    public static boolean isPrimitive(Class<?> fieldType) {
+        return fieldType == int[].class || fieldType == long[].class || fieldType == double[].class;
+    }
+
+    /**
+     * Accumulator filling a given, usually pooled, list.
+     */
+    public static ArrayElements objects(BaseType<?> baseType, List<Object> list) {
+        return new Objects(baseType, list);
+    }
+
+    @FunctionalInterface
+    public interface Factory {
+        ArrayElements create(int capacity);
+    }
+
+    private static int grow(int length) {
+        return Math.max(DEFAULT_CAPACITY, length << 1);
+    }
+
+    private static final class Objects extends ArrayElements {
+        private final BaseType<?> baseType;
+        private final List<Object> list;
+
+        private Objects(BaseType<?> baseType, List<Object> list) {
+            this.baseType = baseType;
+            this.list = list;
+        }
+
+        @Override
+        public void add(String value) throws ValidationException {
+            list.add(baseType.transform(value));
+            size++;
+        }
+
+        @Override
+        public Object build() {
+            return list;
+        }
+    }
+
+    private static final class Ints extends ArrayElements {
+        private final IntTransformer transformer;
+        private int[] values;
+
+        private Ints(IntTransformer transformer, int capacity) {
+            this.transformer = transformer;
+            this.values = new int[capacity];
+        }
+
+        @Override
+        public void add(String value) throws ValidationException {
+            final int element = transformer.transformInt(value);
+            if (size == values.length) {
+                values = Arrays.copyOf(values, grow(values.length));
+            }
+            values[size++] = element;
+        }
+
+        @Override
+        public Object build() {
+            return size == values.length ? values : Arrays.copyOf(values, size);
+        }
+    }
+
+    private static final class Longs extends ArrayElements {
+        private final LongTransformer transformer;
+        private long[] values;
+
+        private Longs(LongTransformer transformer, int capacity) {
+            this.transformer = transformer;
+            this.values = new long[capacity];
+        }
+
+        @Override
+        public void add(String value) throws ValidationException {
+            final long element = transformer.transformLong(value);
+            if (size == values.length) {
+                values = Arrays.copyOf(values, grow(values.length));
+            }
+            values[size++] = element;
+        }
+
+        @Override
+        public Object build() {
+            return size == values.length ? values : Arrays.copyOf(values, size);
+        }
+    }
+
+    private static final class Doubles extends ArrayElements {
+        private final DoubleTransformer transformer;
+        private double[] values;
+
+        private Doubles(DoubleTransformer transformer, int capacity) {
+            this.transformer = transformer;
+            this.values = new double[capacity];
+        }
+
+        @Override
+        public void add(String value) throws ValidationException {
+            final double element = transformer.transformDouble(value);
+            if (size == values.length) {
+                values = Arrays.copyOf(values, grow(values.length));
+            }
+            values[size++] = element;
+        }
+
+        @Override
+        public Object build() {
+            return size == values.length ? values : Arrays.copyOf(values, size);
+        }
+    }
+}
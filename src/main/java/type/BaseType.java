@@ -8,11 +8,15 @@ public abstract class BaseType<T> {
 
     public T transform(String value) throws ValidationException {
         if (!ofNullable(value).map(this::validate).orElse(true)) {
-            throw new ValidationException(String.format("Invalid value \"%s\" for type \"%s\"", value, this.getClass().getSimpleName()));
+            throw invalid(value);
         }
         return ofNullable(value).map(this::parseValue).orElse(null);
     }
 
+    protected ValidationException invalid(String value) {
+        return new InvalidValueException(value, this.getClass());
+    }
+
     protected abstract Boolean validate(String value);
 
     protected abstract T parseValue(String value);
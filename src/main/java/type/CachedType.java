@@ -0,0 +1,209 @@
+package type;
+
+import javax.xml.bind.ValidationException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Memoizes the outcome of a {@link BaseType} per input string, including rejections.
+ * The cache is a bounded LRU split into independently locked stripes, so concurrent lookups of
+ * different values rarely contend. Only worth it for types which are expensive compared to a hash lookup:
+ * <pre>
+ * TypeRegistry.getDefault().cache(PhoneType.class, 10_000);
+ * </pre>
+ * A delegate implementing {@link IntTransformer}, {@link LongTransformer} or {@link DoubleTransformer} gets a cached type
+ * implementing it too, so primitive columns and arrays keep their unboxed path. The first one in this order wins
+ * if the delegate has several.
+ */
+public class CachedType<T> extends BaseType<T> {
+    private static final int MAX_STRIPES = 16;
+    private static final Object NULL = new Object();
+
+    private final BaseType<T> delegate;
+    private final Stripe[] stripes;
+    private final int mask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private CachedType(BaseType<T> delegate, int maximumSize) {
+        final int count = Math.min(MAX_STRIPES, Integer.highestOneBit(maximumSize));
+        this.delegate = delegate;
+        this.stripes = new Stripe[count];
+        this.mask = count - 1;
+
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(maximumSize / count + (i < maximumSize % count ? 1 : 0), evictions);
+        }
+    }
+
+    /**
+     * @param maximumSize upper bound of cached values
+     */
+    public static <T> CachedType<T> of(BaseType<T> delegate, int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be positive");
+        }
+        if (delegate instanceof IntTransformer) {
+            return new CachedInt<>(delegate, maximumSize);
+        } else if (delegate instanceof LongTransformer) {
+            return new CachedLong<>(delegate, maximumSize);
+        } else if (delegate instanceof DoubleTransformer) {
+            return new CachedDouble<>(delegate, maximumSize);
+        }
+        return new CachedType<>(delegate, maximumSize);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T transform(String value) throws ValidationException {
+        if (value == null) {
+            return delegate.transform(null);
+        }
+        final Stripe stripe = stripe(value);
+        Object cached;
+        synchronized (stripe) {
+            cached = stripe.get(value);
+        }
+        if (cached != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            cached = compute(value);
+            synchronized (stripe) {
+                stripe.put(value, cached);
+            }
+        }
+
+        if (cached instanceof Failure) {
+            throw ((Failure) cached).error;
+        }
+        return cached == NULL ? null : (T) cached;
+    }
+
+    private Object compute(String value) {
+        try {
+            final T result = delegate.transform(value);
+            return result == null ? NULL : result;
+        } catch (ValidationException e) {
+            return new Failure(e);
+        }
+    }
+
+    private Stripe stripe(String value) {
+        final int hash = value.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & mask];
+    }
+
+    @Override
+    protected Boolean validate(String value) {
+        return delegate.validate(value);
+    }
+
+    @Override
+    protected T parseValue(String value) {
+        return delegate.parseValue(value);
+    }
+
+    public BaseType<T> getDelegate() {
+        return delegate;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Cached integer type, the boxed cached value is unboxed instead of scanning the text again.
+     */
+    private static final class CachedInt<T> extends CachedType<T> implements IntTransformer {
+
+        private CachedInt(BaseType<T> delegate, int maximumSize) {
+            super(delegate, maximumSize);
+        }
+
+        @Override
+        public int transformInt(String value) throws ValidationException {
+            return value == null
+                    ? ((IntTransformer) getDelegate()).transformInt(null) : ((Number) transform(value)).intValue();
+        }
+    }
+
+    private static final class CachedLong<T> extends CachedType<T> implements LongTransformer {
+
+        private CachedLong(BaseType<T> delegate, int maximumSize) {
+            super(delegate, maximumSize);
+        }
+
+        @Override
+        public long transformLong(String value) throws ValidationException {
+            return value == null
+                    ? ((LongTransformer) getDelegate()).transformLong(null) : ((Number) transform(value)).longValue();
+        }
+    }
+
+    private static final class CachedDouble<T> extends CachedType<T> implements DoubleTransformer {
+
+        private CachedDouble(BaseType<T> delegate, int maximumSize) {
+            super(delegate, maximumSize);
+        }
+
+        @Override
+        public double transformDouble(String value) throws ValidationException {
+            return value == null
+                    ? ((DoubleTransformer) getDelegate()).transformDouble(null) : ((Number) transform(value)).doubleValue();
+        }
+    }
+
+    /**
+     * Rejection of a value, the same exception instance is rethrown on every hit.
+     */
+    private static final class Failure {
+        private final ValidationException error;
+
+        private Failure(ValidationException error) {
+            this.error = error;
+        }
+    }
+
+    private static final class Stripe extends LinkedHashMap<String, Object> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+        private final LongAdder evictions;
+
+        private Stripe(int capacity, LongAdder evictions) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package type;
+
+import javax.xml.bind.ValidationException;
+
+/**
+ * Type able to produce its value as a primitive {@code double}, used to fill {@code double[]} fields without boxing.
+ */
+public interface DoubleTransformer {
+
+    double transformDouble(String value) throws ValidationException;
+}
@@ -1,17 +1,113 @@
 package type;
 
-import java.util.regex.Pattern;
+import javax.xml.bind.ValidationException;
 
-public class DoubleType extends BaseType<Double> {
-    private Pattern pattern = Pattern.compile("^\\d+((,|\\.)\\d+)?$");
+/**
+ * Non-negative decimal number with an optional fraction after a dot or a comma, {@code ^\d+((,|\.)\d+)?$}.
+ */
+public class DoubleType extends BaseType<Double> implements DoubleTransformer {
+    private static final int INVALID = -1;
+    private static final int NO_SEPARATOR = -2;
+
+    /**
+     * Powers of ten exactly representable as a double.
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Largest mantissa exactly representable as a double, 2^53.
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    @Override
+    public Double transform(String value) throws ValidationException {
+        return value == null ? null : transformDouble(value);
+    }
+
+    @Override
+    public double transformDouble(String value) throws ValidationException {
+        final int separator = scan(value);
+        if (separator == INVALID) {
+            throw invalid(value);
+        }
+        return parse(value, separator);
+    }
 
     @Override
     protected Boolean validate(String value) {
-        return pattern.matcher(value).matches();
+        return scan(value) != INVALID;
     }
 
     @Override
     public Double parseValue(String value) {
-        return Double.parseDouble(value.replaceFirst(",", "."));
+        final int separator = scan(value);
+        return separator == INVALID ? Double.parseDouble(replaceComma(value, value.indexOf(','))) : parse(value, separator);
+    }
+
+    /**
+     * @return position of the decimal separator, {@link #NO_SEPARATOR} for an integer or {@link #INVALID}
+     */
+    private static int scan(String value) {
+        final int length = value.length();
+        int separator = NO_SEPARATOR;
+        int i = digits(value, 0);
+
+        if (i == 0) {
+            return INVALID;
+        }
+        if (i < length) {
+            final char c = value.charAt(i);
+            if (c != ',' && c != '.') {
+                return INVALID;
+            }
+            separator = i;
+            i = digits(value, i + 1);
+            if (i == separator + 1) {
+                return INVALID;
+            }
+        }
+        return i == length ? separator : INVALID;
+    }
+
+    private static int digits(String value, int from) {
+        int i = from;
+        while (i < value.length() && value.charAt(i) >= '0' && value.charAt(i) <= '9') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Parses a value which already matched the grammar. Short values are computed directly as
+     * mantissa / 10^fraction, which is correctly rounded while both operands are exact doubles.
+     */
+    private static double parse(String value, int separator) {
+        final int length = value.length();
+        final int fraction = separator == NO_SEPARATOR ? 0 : length - separator - 1;
+        long mantissa = 0;
+
+        if (length - (separator == NO_SEPARATOR ? 0 : 1) <= 15 && fraction < POWERS_OF_TEN.length) {
+            for (int i = 0; i < length; i++) {
+                if (i != separator) {
+                    mantissa = mantissa * 10 + (value.charAt(i) - '0');
+                }
+            }
+            if (mantissa <= MAX_EXACT_MANTISSA) {
+                return mantissa / POWERS_OF_TEN[fraction];
+            }
+        }
+        return Double.parseDouble(replaceComma(value, separator));
+    }
+
+    private static String replaceComma(String value, int separator) {
+        if (separator < 0 || value.charAt(separator) != ',') {
+            return value;
+        }
+        final char[] chars = value.toCharArray();
+        chars[separator] = '.';
+        return new String(chars);
     }
 }
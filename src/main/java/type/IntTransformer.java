@@ -0,0 +1,12 @@
+package type;
+
+import javax.xml.bind.ValidationException;
+
+/**
+ * Type able to produce its value as a primitive {@code int}, used to fill {@code int[]}, {@code long[]} and
+ * {@code double[]} fields without boxing.
+ */
+public interface IntTransformer {
+
+    int transformInt(String value) throws ValidationException;
+}
@@ -1,17 +1,64 @@
 package type;
 
-import java.util.regex.Pattern;
+import javax.xml.bind.ValidationException;
 
-public class IntegerType extends BaseType<Integer> {
-    private Pattern pattern = Pattern.compile("^\\d+$");
+/**
+ * Non-negative decimal integer, {@code ^\d+$}.
+ */
+public class IntegerType extends BaseType<Integer> implements IntTransformer {
+    private static final long INVALID = -1;
+
+    @Override
+    public Integer transform(String value) throws ValidationException {
+        return value == null ? null : transformInt(value);
+    }
+
+    @Override
+    public int transformInt(String value) throws ValidationException {
+        final long result = scan(value);
+        if (result == INVALID) {
+            throw invalid(value);
+        }
+        return toInt(value, result);
+    }
 
     @Override
     protected Boolean validate(String value) {
-        return pattern.matcher(value).matches();
+        return scan(value) != INVALID;
     }
 
     @Override
     public Integer parseValue(String value) {
-        return Integer.parseInt(value);
+        final long result = scan(value);
+        return result == INVALID ? Integer.parseInt(value) : toInt(value, result);
+    }
+
+    /**
+     * Validates and accumulates the digits in one pass.
+     *
+     * @return the value, anything above {@link Integer#MAX_VALUE} means overflow, or {@link #INVALID}
+     */
+    private static long scan(String value) {
+        final int length = value.length();
+        long result = 0;
+
+        if (length == 0) {
+            return INVALID;
+        }
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return INVALID;
+            }
+            if (result <= Integer.MAX_VALUE) {
+                result = result * 10 + (c - '0');
+            }
+        }
+        return result;
+    }
+
+    private static int toInt(String value, long result) {
+        // let Integer.parseInt report the overflow exactly as before
+        return result > Integer.MAX_VALUE ? Integer.parseInt(value) : (int) result;
     }
 }
@@ -0,0 +1,38 @@
+package type;
+
+import javax.xml.bind.ValidationException;
+
+/**
+ * Value rejected by a {@link BaseType}. The message is only formatted when asked for
+ * and no stack trace is captured, so rejecting malformed input stays cheap.
+ */
+public class InvalidValueException extends ValidationException {
+    private static final long serialVersionUID = 1L;
+
+    private final String value;
+    private final Class<?> type;
+
+    public InvalidValueException(String value, Class<?> type) {
+        super((String) null);
+        this.value = value;
+        this.type = type;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    @Override
+    public String getMessage() {
+        return String.format("Invalid value \"%s\" for type \"%s\"", value, type.getSimpleName());
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,12 @@
+package type;
+
+import javax.xml.bind.ValidationException;
+
+/**
+ * Type able to produce its value as a primitive {@code long}, used to fill {@code long[]} fields without boxing
+ * beyond the range of {@code int}.
+ */
+public interface LongTransformer {
+
+    long transformLong(String value) throws ValidationException;
+}
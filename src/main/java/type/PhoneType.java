@@ -1,24 +1,136 @@
 package type;
 
-import java.util.regex.Pattern;
+import javax.xml.bind.ValidationException;
 
+/**
+ * Russian phone number normalized to 11 digits starting with 7.
+ * Accepts the grammar {@code ^(\+7|7|8)?[\s\-]?\(?[489][0-9]{2}\)?[\s\-]?[0-9]{3}[\s\-]?[0-9]{2}[\s\-]?[0-9]{2}$}.
+ */
 public class PhoneType extends BaseType<String> {
-    private Pattern pattern = Pattern.compile("^(\\+7|7|8)?[\\s\\-]?\\(?[489][0-9]{2}\\)?[\\s\\-]?[0-9]{3}[\\s\\-]?[0-9]{2}[\\s\\-]?[0-9]{2}$");
+    private static final int INVALID = -1;
+    private static final int MAX_DIGITS = 11;
+    private static final int[] GROUPS = {2, 3, 2, 2};
+
+    @Override
+    public String transform(String value) throws ValidationException {
+        if (value == null) {
+            return null;
+        }
+        final char[] digits = new char[MAX_DIGITS + 1];
+        final int count = scan(value, digits);
+        if (count == INVALID) {
+            throw invalid(value);
+        }
+        return normalize(digits, count);
+    }
 
     @Override
     protected Boolean validate(String value) {
-        return pattern.matcher(value).matches();
+        return scan(value, new char[MAX_DIGITS + 1]) != INVALID;
     }
 
     @Override
     public String parseValue(String value) {
-        String normalize = value.replaceAll("[^\\d.]", "");
-        if (normalize.length() == 11 && normalize.charAt(0) == '8') {
-            normalize = "7" + normalize.substring(1);
-        } else if (normalize.length() == 10) {
-            normalize = "7" + normalize;
+        final char[] digits = new char[value.length() + 1];
+        int count = 0;
+
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c >= '0' && c <= '9' || c == '.') {
+                digits[1 + count++] = c;
+            }
+        }
+        return normalize(digits, count);
+    }
+
+    /**
+     * Matches the grammar and copies the digits to {@code digits} starting from index 1 in the same pass.
+     *
+     * @return number of digits or {@link #INVALID}
+     */
+    private static int scan(String value, char[] digits) {
+        if (value.startsWith("+7")) {
+            return number(value, 2, digits, prefix(digits, '7'));
+        } else if (value.startsWith("7")) {
+            return number(value, 1, digits, prefix(digits, '7'));
+        } else if (value.startsWith("8")) {
+            // "8" is both the trunk prefix and a valid first digit of the area code
+            final int count = number(value, 1, digits, prefix(digits, '8'));
+            return count != INVALID ? count : number(value, 0, digits, 0);
+        }
+        return number(value, 0, digits, 0);
+    }
+
+    private static int prefix(char[] digits, char c) {
+        digits[1] = c;
+        return 1;
+    }
+
+    /**
+     * {@code [\s\-]?\(?[489][0-9]{2}\)?[\s\-]?[0-9]{3}[\s\-]?[0-9]{2}[\s\-]?[0-9]{2}$} from position {@code i}.
+     * No backtracking is needed here: every optional part is followed by a character of a different class.
+     */
+    private static int number(String value, int i, char[] digits, int count) {
+        final int length = value.length();
+
+        i = optional(value, separator(value, i), '(');
+        if (i >= length || value.charAt(i) != '4' && value.charAt(i) != '8' && value.charAt(i) != '9') {
+            return INVALID;
+        }
+        digits[1 + count++] = value.charAt(i++);
+
+        for (int group = 0; group < GROUPS.length; group++) {
+            for (int j = 0; j < GROUPS[group]; j++, i++) {
+                if (i >= length || value.charAt(i) < '0' || value.charAt(i) > '9') {
+                    return INVALID;
+                }
+                digits[1 + count++] = value.charAt(i);
+            }
+            if (group == 0) {
+                i = optional(value, i, ')');
+            }
+            if (group < GROUPS.length - 1) {
+                i = separator(value, i);
+            }
+        }
+        return i == length ? count : INVALID;
+    }
+
+    private static int optional(String value, int i, char c) {
+        return i < value.length() && value.charAt(i) == c ? i + 1 : i;
+    }
+
+    /**
+     * Skips an optional {@code [\s\-]}, {@code \s} being {@code [ \t\n\x0B\f\r]}.
+     */
+    private static int separator(String value, int i) {
+        if (i < value.length()) {
+            switch (value.charAt(i)) {
+                case ' ':
+                case '\t':
+                case '\n':
+                case '\u000B':
+                case '\f':
+                case '\r':
+                case '-':
+                    return i + 1;
+                default:
+            }
         }
+        return i;
+    }
 
-        return normalize;
+    /**
+     * @param digits digits starting from index 1, index 0 is reserved for the country code
+     */
+    private static String normalize(char[] digits, int count) {
+        if (count == 11 && digits[1] == '8') {
+            digits[1] = '7';
+            return new String(digits, 1, count);
+        } else if (count == 10) {
+            digits[0] = '7';
+            return new String(digits, 0, count + 1);
+        }
+        return new String(digits, 1, count);
     }
 }
@@ -0,0 +1,96 @@
+package type;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Single shared instance of every {@link BaseType} plus alias names for them.
+ * Types must be stateless: one instance is used by all mappings and threads.
+ * <pre>
+ * TypeRegistry.getDefault().register("inn", InnType.class);
+ * Sanitizer.of(json, User.class).map("inn", "inn").map("phones", "phone[]");
+ * </pre>
+ */
+public final class TypeRegistry {
+    private static final String ARRAY_SUFFIX = "[]";
+    private static final TypeRegistry DEFAULT = new TypeRegistry()
+            .register("integer", IntegerType.class)
+            .register("double", DoubleType.class)
+            .register("string", StringType.class)
+            .register("phone", PhoneType.class);
+
+    private final ConcurrentMap<Class<?>, BaseType<?>> instances = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Class<? extends BaseType<?>>> aliases = new ConcurrentHashMap<>();
+
+    public static TypeRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return the shared instance used for {@code type}, created on first use
+     */
+    public BaseType<?> get(Class<? extends BaseType<?>> type) throws InstantiationException, IllegalAccessException {
+        final BaseType<?> instance = instances.get(type);
+        if (instance != null) {
+            return instance;
+        }
+        final BaseType<?> created = create(type);
+        final BaseType<?> previous = instances.putIfAbsent(type, created);
+        return previous != null ? previous : created;
+    }
+
+    /**
+     * Makes {@code type} available under {@code alias}, an existing alias is replaced.
+     */
+    public TypeRegistry register(String alias, Class<? extends BaseType<?>> type) {
+        if (alias.endsWith(ARRAY_SUFFIX)) {
+            throw new IllegalArgumentException("Alias must not end with " + ARRAY_SUFFIX);
+        }
+        aliases.put(alias, type);
+        return this;
+    }
+
+    /**
+     * Uses a preconfigured {@code instance}, e.g. a {@link CachedType}, for every mapping of {@code type}.
+     * Only mappings created afterwards are affected.
+     */
+    public TypeRegistry register(Class<? extends BaseType<?>> type, BaseType<?> instance) {
+        instances.put(type, instance);
+        return this;
+    }
+
+    /**
+     * Wraps the instance of {@code type} into a {@link CachedType} of {@code maximumSize} values.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CachedType<T> cache(Class<? extends BaseType<T>> type, int maximumSize) throws InstantiationException, IllegalAccessException {
+        final BaseType<T> instance = (BaseType<T>) get(type);
+        final CachedType<T> cached = CachedType.of(instance instanceof CachedType
+                ? ((CachedType<T>) instance).getDelegate() : instance, maximumSize);
+        register(type, cached);
+        return cached;
+    }
+
+    /**
+     * @return type class for {@code alias}, {@code "alias[]"} gives the array class, {@code null} if not registered
+     */
+    public Class<?> resolve(String alias) {
+        if (alias.endsWith(ARRAY_SUFFIX)) {
+            final Class<?> component = aliases.get(alias.substring(0, alias.length() - ARRAY_SUFFIX.length()));
+            return component != null ? Array.newInstance(component, 0).getClass() : null;
+        }
+        return aliases.get(alias);
+    }
+
+    private static BaseType<?> create(Class<?> type) throws InstantiationException, IllegalAccessException {
+        try {
+            return (BaseType<?>) type.getDeclaredConstructor().newInstance();
+        } catch (NoSuchMethodException e) {
+            throw new InstantiationException(type.getName());
+        } catch (InvocationTargetException e) {
+            throw (InstantiationException) new InstantiationException(type.getName()).initCause(e.getCause());
+        }
+    }
+}
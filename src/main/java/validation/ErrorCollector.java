@@ -0,0 +1,97 @@
+package validation;
+
+import javax.xml.bind.ValidationException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Collects the {@link ValidationError}s of a single document within the budget of an {@link ErrorPolicy}.
+ * Errors over the budget are dropped, producers check {@link #isFull()} to stop early.
+ */
+public final class ErrorCollector {
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    private List<ValidationError> errors = Collections.emptyList();
+    private int maxErrors;
+
+    public ErrorCollector() {
+        this(ErrorPolicy.collectAll());
+    }
+
+    public ErrorCollector(ErrorPolicy policy) {
+        this.maxErrors = policy.getMaxErrors();
+    }
+
+    public void setPolicy(ErrorPolicy policy) {
+        this.maxErrors = policy.getMaxErrors();
+    }
+
+    public void add(ValidationError error) {
+        if (errors.isEmpty()) {
+            errors = new ArrayList<>(4);
+        }
+        if (errors.size() < maxErrors) {
+            errors.add(error);
+        }
+    }
+
+    public void add(ErrorPath path, String field, int index, ValidationException e) {
+        add(ValidationError.of(path, field, index, e));
+    }
+
+    public void add(ErrorPath path, String field, String message) {
+        add(ValidationError.of(path, field, message));
+    }
+
+    /**
+     * Drops the errors of the value of {@code field} of the object at {@code path}, nested values included,
+     * when a repeated key replaces that value.
+     */
+    public void forget(ErrorPath path, String field) {
+        if (!errors.isEmpty()) {
+            errors.removeIf(error -> error.isOf(path, field));
+        }
+    }
+
+    /**
+     * Forgets the collected errors, lists already handed out stay intact.
+     */
+    public void clear() {
+        errors = Collections.emptyList();
+    }
+
+    public int size() {
+        return errors.size();
+    }
+
+    public boolean isEmpty() {
+        return errors.isEmpty();
+    }
+
+    /**
+     * @return whether the error budget is spent and sanitizing should stop
+     */
+    public boolean isFull() {
+        return errors.size() >= maxErrors;
+    }
+
+    public List<ValidationError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    public void throwIfAny() throws SanitizationException {
+        if (!errors.isEmpty()) {
+            throw new SanitizationException(getErrors());
+        }
+    }
+
+    static String render(List<ValidationError> errors) {
+        final StringBuilder builder = new StringBuilder();
+
+        for (ValidationError error : errors) {
+            error.appendTo(builder).append(LINE_SEPARATOR);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,75 @@
+package validation;
+
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Position of a nested object in the document, a chain of keys rendered as {@code key/sub/}.
+ * Paths are immutable and share their parents, so descending into a nested object costs one small object.
+ */
+public final class ErrorPath {
+    public static final ErrorPath ROOT = new ErrorPath(null, null);
+
+    private final ErrorPath parent;
+    private final String key;
+    private final int depth;
+
+    private ErrorPath(ErrorPath parent, String key) {
+        this.parent = parent;
+        this.key = key;
+        this.depth = parent == null ? 0 : parent.depth + 1;
+    }
+
+    public ErrorPath child(String key) {
+        return new ErrorPath(this, key);
+    }
+
+    public boolean isRoot() {
+        return parent == null;
+    }
+
+    /**
+     * @return number of keys, {@code 0} for {@link #ROOT}
+     */
+    public int depth() {
+        return depth;
+    }
+
+    public List<String> segments() {
+        final LinkedList<String> segments = new LinkedList<>();
+
+        for (ErrorPath path = this; !path.isRoot(); path = path.parent) {
+            segments.addFirst(path.key);
+        }
+        return Collections.unmodifiableList(segments);
+    }
+
+    /**
+     * @return whether this path is {@code path} or nested in it, paths are compared by their keys
+     */
+    boolean isWithin(ErrorPath path) {
+        ErrorPath current = this;
+        while (current.depth > path.depth) {
+            current = current.parent;
+        }
+        for (ErrorPath other = path; current != other; current = current.parent, other = other.parent) {
+            if (current.depth != other.depth || !current.key.equals(other.key)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    StringBuilder appendTo(StringBuilder builder) {
+        if (!isRoot()) {
+            parent.appendTo(builder).append(key).append('/');
+        }
+        return builder;
+    }
+
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder()).toString();
+    }
+}
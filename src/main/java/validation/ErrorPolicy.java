@@ -0,0 +1,44 @@
+package validation;
+
+/**
+ * How many errors are worth collecting before a document is rejected.
+ * Once the budget is spent validation, parsing and nested sanitizers stop right away.
+ */
+public final class ErrorPolicy {
+    private static final ErrorPolicy COLLECT_ALL = new ErrorPolicy(Integer.MAX_VALUE);
+    private static final ErrorPolicy FAIL_FAST = new ErrorPolicy(1);
+
+    private final int maxErrors;
+
+    private ErrorPolicy(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Validate every mapped value and report all errors, the default.
+     */
+    public static ErrorPolicy collectAll() {
+        return COLLECT_ALL;
+    }
+
+    /**
+     * Stop on the first error.
+     */
+    public static ErrorPolicy failFast() {
+        return FAIL_FAST;
+    }
+
+    /**
+     * Stop after {@code maxErrors} errors.
+     */
+    public static ErrorPolicy limit(int maxErrors) {
+        if (maxErrors < 1) {
+            throw new IllegalArgumentException("maxErrors must be positive");
+        }
+        return maxErrors == 1 ? FAIL_FAST : new ErrorPolicy(maxErrors);
+    }
+
+    public int getMaxErrors() {
+        return maxErrors;
+    }
+}
@@ -0,0 +1,38 @@
+package validation;
+
+import javax.xml.bind.ValidationException;
+import java.util.List;
+
+/**
+ * All validation failures of a document. {@link #getMessage()} renders them one per line,
+ * the same text the sanitizer has always reported; {@link #getErrors()} gives the structured list.
+ * No stack trace is captured: the exception describes the input, not the code.
+ */
+public class SanitizationException extends ValidationException {
+    private static final long serialVersionUID = 1L;
+
+    private final List<ValidationError> errors;
+    private String message;
+
+    public SanitizationException(List<ValidationError> errors) {
+        super((String) null);
+        this.errors = errors;
+    }
+
+    public List<ValidationError> getErrors() {
+        return errors;
+    }
+
+    @Override
+    public String getMessage() {
+        if (message == null) {
+            message = ErrorCollector.render(errors);
+        }
+        return message;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
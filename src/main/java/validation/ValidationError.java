@@ -0,0 +1,107 @@
+package validation;
+
+import type.InvalidValueException;
+
+import javax.xml.bind.ValidationException;
+import java.util.List;
+
+/**
+ * Single validation failure: where it happened, which {@code BaseType} rejected which value.
+ * The text is only rendered on {@link #getMessage()} / {@link #toString()}.
+ */
+public final class ValidationError {
+    public static final int NO_INDEX = -1;
+
+    private final ErrorPath path;
+    private final String field;
+    private final int index;
+    private final Class<?> type;
+    private final String value;
+    private final String message;
+
+    private ValidationError(ErrorPath path, String field, int index, Class<?> type, String value, String message) {
+        this.path = path;
+        this.field = field;
+        this.index = index;
+        this.type = type;
+        this.value = value;
+        this.message = message;
+    }
+
+    public static ValidationError of(ErrorPath path, String field, int index, ValidationException e) {
+        if (e instanceof InvalidValueException) {
+            final InvalidValueException invalid = (InvalidValueException) e;
+            return new ValidationError(path, field, index, invalid.getType(), invalid.getValue(), null);
+        }
+        return new ValidationError(path, field, index, null, null, e.getMessage());
+    }
+
+    public static ValidationError of(ErrorPath path, String field, String message) {
+        return new ValidationError(path, field, NO_INDEX, null, null, message);
+    }
+
+    /**
+     * @return keys of the nested objects containing the field
+     */
+    public List<String> getPath() {
+        return path.segments();
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * @return index of the rejected array element or {@link #NO_INDEX}
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return {@code BaseType} which rejected the value, {@code null} for structural errors
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public String getMessage() {
+        return message != null
+                ? message
+                : String.format("Invalid value \"%s\" for type \"%s\"", value, type.getSimpleName());
+    }
+
+    /**
+     * @return whether the error is about the value of {@code field} of the object at {@code path}, nested values included
+     */
+    boolean isOf(ErrorPath path, String field) {
+        if (this.path.depth() == path.depth()) {
+            return field.equals(this.field) && this.path.isWithin(path);
+        }
+        return this.path.depth() > path.depth() && this.path.isWithin(path.child(field));
+    }
+
+    /**
+     * An error of the whole document, without path and field, is rendered as its message only.
+     */
+    StringBuilder appendTo(StringBuilder builder) {
+        final int start = builder.length();
+        path.appendTo(builder).append(field);
+        if (index != NO_INDEX) {
+            builder.append('[').append(index).append(']');
+        }
+        if (builder.length() > start) {
+            builder.append(": ");
+        }
+        return builder.append(getMessage());
+    }
+
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder()).toString();
+    }
+}
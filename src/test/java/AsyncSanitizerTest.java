@@ -0,0 +1,123 @@
+import classes.SimpleNestedNested;
+import org.junit.jupiter.api.Test;
+import type.DoubleType;
+import type.IntegerType;
+import type.PhoneType;
+import type.StringType;
+import validation.SanitizationException;
+
+import javax.xml.bind.ValidationException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+import static java.util.Optional.ofNullable;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncSanitizerTest {
+    private static String CORRECT_NESTED_NESTED = getResource("correct/simple_nested_nested.json");
+    private static String INCORRECT_NESTED_NESTED = getResource("incorrect/simple_nested_nested.json");
+
+    private static String getResource(String path) {
+        return ofNullable(path)
+                .map(Sanitizer.class::getResourceAsStream)
+                .map(r -> new BufferedReader(new InputStreamReader(r)).lines().collect(Collectors.joining()))
+                .orElse("");
+    }
+
+    private static SanitizerSchema<SimpleNestedNested> schema() throws InstantiationException, IllegalAccessException {
+        Map<String, Object> nested2 = new HashMap<>();
+        nested2.put("foo", IntegerType.class);
+        nested2.put("bar", StringType.class);
+        nested2.put("baz", PhoneType.class);
+        nested2.put("array", DoubleType[].class);
+
+        Map<String, Object> nested1 = new HashMap<>();
+        nested1.put("foo", IntegerType.class);
+        nested1.put("bar", StringType.class);
+        nested1.put("baz", PhoneType.class);
+        nested1.put("nested", nested2);
+
+        return SanitizerSchema.of(SimpleNestedNested.class)
+                .map("foo", IntegerType.class)
+                .map("bar", StringType.class)
+                .map("baz", PhoneType.class)
+                .map("nested", nested1);
+    }
+
+    @Test
+    void feed_InterleavedChunksTest() throws IOException, InstantiationException, IllegalAccessException, InterruptedException, ExecutionException {
+        SanitizerSchema<SimpleNestedNested> schema = schema();
+        byte[] correct = ("{\"blob\": [1, {\"a\": [2]}], " + CORRECT_NESTED_NESTED.substring(1)).getBytes(StandardCharsets.UTF_8);
+        byte[] incorrect = INCORRECT_NESTED_NESTED.getBytes(StandardCharsets.UTF_8);
+
+        List<AsyncSanitizer<SimpleNestedNested>> sanitizers = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            sanitizers.add(schema.async());
+        }
+        for (int position = 0; position < Math.max(correct.length, incorrect.length); position += 3) {
+            for (int i = 0; i < sanitizers.size(); i++) {
+                byte[] json = i % 2 == 0 ? correct : incorrect;
+                if (position < json.length) {
+                    sanitizers.get(i).feed(json, position, Math.min(3, json.length - position));
+                }
+            }
+        }
+
+        for (int i = 0; i < sanitizers.size(); i++) {
+            CompletableFuture<SimpleNestedNested> result = sanitizers.get(i).result();
+            assertTrue(result.isDone());
+            if (i % 2 == 0) {
+                assertEquals(result.get().getNested().getNested().getBaz(), "79502885623");
+                assertEquals(result.get().getNested().getNested().getArray().size(), 3);
+            } else {
+                ExecutionException exception = assertThrows(ExecutionException.class, result::get);
+                assertEquals(((SanitizationException) exception.getCause()).getErrors().size(), 3);
+            }
+        }
+    }
+
+    @Test
+    void end_IncompleteTest() throws IOException, InstantiationException, IllegalAccessException {
+        SanitizerSchema<SimpleNestedNested> schema = schema();
+
+        AsyncSanitizer<SimpleNestedNested> truncated = schema.async().feed("{\"foo\": \"1".getBytes(StandardCharsets.UTF_8));
+        assertFalse(truncated.result().isDone());
+        truncated.end();
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> truncated.result().get());
+        assertTrue(exception.getCause() instanceof ValidationException);
+        assertTrue(exception.getCause().getMessage().startsWith("Malformed json"));
+
+        AsyncSanitizer<SimpleNestedNested> malformed = schema.async().feed("{\"foo\" 1}".getBytes(StandardCharsets.UTF_8));
+        assertTrue(malformed.result().isCompletedExceptionally());
+
+        AsyncSanitizer<SimpleNestedNested> empty = schema.async();
+        empty.end();
+        assertTrue(empty.result().isDone());
+        assertFalse(empty.result().isCompletedExceptionally());
+    }
+
+    @Test
+    void feed_RuntimeExceptionTest() throws IOException, InstantiationException, IllegalAccessException {
+        AsyncSanitizer<SimpleNestedNested> sanitizer = schema().async();
+
+        sanitizer.feed("{\"foo\": \"99999999999\", ".getBytes(StandardCharsets.UTF_8));
+        assertTrue(sanitizer.result().isCompletedExceptionally());
+        sanitizer.feed("\"bar\": \"asd\"}".getBytes(StandardCharsets.UTF_8)).end();
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> sanitizer.result().get());
+        assertTrue(exception.getCause() instanceof ValidationException);
+        assertTrue(exception.getCause().getCause() instanceof NumberFormatException);
+    }
+}
@@ -0,0 +1,107 @@
+import classes.Simple;
+import org.junit.jupiter.api.Test;
+import type.IntegerType;
+import type.PhoneType;
+import type.StringType;
+
+import javax.xml.bind.ValidationException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkSanitizerTest {
+    private static final String CORRECT = "{\"foo\": \"%d\", \"bar\": \"asd\", \"baz\": \"8 (950) 288-56-23\"}";
+    private static final String INCORRECT = "{\"foo\": \"123a\", \"bar\": \"asd\", \"baz\": \"8 (950) 288-56-23\"}";
+
+    private static SanitizerSchema<Simple> schema() throws InstantiationException, IllegalAccessException {
+        return SanitizerSchema.of(Simple.class)
+                .map("foo", IntegerType.class)
+                .map("bar", StringType.class)
+                .map("baz", PhoneType.class);
+    }
+
+    private static InputStream input(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String documents(int count) {
+        return Stream.iterate(0, i -> i + 1).limit(count)
+                .map(i -> i % 10 == 9 ? INCORRECT : String.format(CORRECT, i))
+                .collect(Collectors.joining("\n"));
+    }
+
+    @Test
+    void ndjson_OrderedTest() throws InstantiationException, IllegalAccessException, ValidationException {
+        List<Result<Simple>> results;
+        try (Stream<Result<Simple>> stream = BulkSanitizer.of(schema()).inFlight(3).ndjson(input(documents(100) + "\n\n"))) {
+            results = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(results.size(), 100);
+        for (int i = 0; i < results.size(); i++) {
+            Result<Simple> result = results.get(i);
+            assertEquals(result.index(), i);
+            if (i % 10 == 9) {
+                assertFalse(result.isValid());
+                assertThrows(ValidationException.class, result::get);
+                assertTrue(result.error().get().contains("foo: Invalid value \"123a\" for type \"IntegerType\""));
+            } else {
+                assertEquals(result.get().getFoo(), Integer.valueOf(i));
+            }
+        }
+    }
+
+    @Test
+    void ndjson_RuntimeExceptionTest() throws InstantiationException, IllegalAccessException, ValidationException {
+        List<Result<Simple>> results;
+        try (Stream<Result<Simple>> stream = BulkSanitizer.of(schema())
+                .ndjson(input(String.format(CORRECT, 1) + "\n" + String.format(CORRECT, 99999999999L) + "\n" + String.format(CORRECT, 3)))) {
+            results = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(results.size(), 3);
+        assertEquals(results.get(0).get().getFoo(), Integer.valueOf(1));
+        assertFalse(results.get(1).isValid());
+        assertTrue(results.get(1).error().get().contains("NumberFormatException"));
+        assertTrue(results.get(1).errors().isEmpty());
+        assertEquals(results.get(2).get().getFoo(), Integer.valueOf(3));
+    }
+
+    @Test
+    void array_UnorderedTest() throws IOException, InstantiationException, IllegalAccessException, ValidationException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Result<Simple>> results;
+        try (Stream<Result<Simple>> stream = BulkSanitizer.of(schema()).executor(executor).ordered(false)
+                .array(input("[" + documents(100).replace("\n", ",") + "]"))) {
+            results = stream.sorted(Comparator.comparingLong(Result::index)).collect(Collectors.toList());
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(results.size(), 100);
+        assertEquals(results.stream().filter(Result::isValid).count(), 90);
+        assertEquals(results.get(42).get().getFoo(), Integer.valueOf(42));
+    }
+
+    @Test
+    void ndjson_MalformedTest() throws InstantiationException, IllegalAccessException {
+        List<Result<Simple>> results = BulkSanitizer.of(schema()).ndjson(input(String.format(CORRECT, 1) + "\n{\"foo\": "))
+                .collect(Collectors.toList());
+
+        assertEquals(results.size(), 2);
+        assertTrue(results.get(0).isValid());
+        assertTrue(results.get(1).error().get().startsWith("Malformed json"));
+    }
+}
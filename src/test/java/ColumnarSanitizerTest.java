@@ -0,0 +1,173 @@
+import classes.SimpleArray;
+import org.junit.jupiter.api.Test;
+import type.CachedType;
+import type.DoubleType;
+import type.IntegerType;
+import type.PhoneType;
+import type.StringType;
+import validation.ErrorPolicy;
+
+import javax.xml.bind.ValidationException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarSanitizerTest {
+
+    private static SanitizerSchema<SimpleArray> schema() throws InstantiationException, IllegalAccessException {
+        return SanitizerSchema.of(SimpleArray.class)
+                .map("foo", IntegerType.class)
+                .map("bar", StringType.class)
+                .map("baz", PhoneType.class)
+                .map("array", DoubleType[].class);
+    }
+
+    @Test
+    void append_ColumnsTest() throws IOException, InstantiationException, IllegalAccessException {
+        ColumnarSanitizer columnar = schema().columnar(4);
+        ColumnBatch batch = columnar.newBatch();
+
+        assertTrue(columnar.append(batch, "{\"foo\": \"1\", \"bar\": \"a\", \"baz\": \"8 (950) 288-56-23\", \"array\": [\"1\"]}"));
+        assertFalse(columnar.append(batch, "{\"foo\": \"x\", \"bar\": \"a\", \"extra\": {\"foo\": 1}}"));
+        assertTrue(columnar.append(batch, "{\"bar\": \"b\", \"foo\": \"3\"}"));
+
+        assertEquals(batch.size(), 3);
+        assertEquals(batch.columns().size(), 3);
+        assertArrayEquals(Arrays.copyOf(batch.ints("foo").values(), 3), new int[]{1, 0, 3});
+        assertEquals(batch.ints("foo").validity()[0], 0b101L);
+        assertEquals(batch.validity()[0], 0b101L);
+        assertEquals(batch.errors(1).get(0).toString(), "foo: Invalid value \"x\" for type \"IntegerType\"");
+        assertTrue(batch.errors(0).isEmpty());
+
+        ColumnBatch.StringColumn bar = batch.strings("bar");
+        assertEquals(bar.dictionary(), Arrays.asList("a", "b"));
+        assertArrayEquals(Arrays.copyOf(bar.codes(), 3), new int[]{0, 0, 1});
+        assertEquals(batch.strings("baz").get(0), "79502885623");
+        assertNull(batch.strings("baz").get(2));
+        assertFalse(batch.strings("baz").isValid(2));
+
+        assertThrows(IllegalArgumentException.class, () -> batch.doubles("foo"));
+        assertThrows(IllegalArgumentException.class, () -> batch.column("array"));
+
+        columnar.append(batch, "{}");
+        assertThrows(IllegalStateException.class, () -> columnar.append(batch, "{}"));
+        batch.clear();
+        assertEquals(batch.size(), 0);
+        assertTrue(bar.dictionary().isEmpty());
+    }
+
+    @Test
+    void ndjson_BatchesTest() throws IOException, InstantiationException, IllegalAccessException {
+        StringBuilder json = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            json.append("{\"foo\": \"").append(i).append(i % 3 == 0 ? "x" : "").append("\", \"bar\": \"b").append(i % 2)
+                    .append("\", \"baz\": \"123\"}\n");
+        }
+        List<Integer> sizes = new ArrayList<>();
+        List<Integer> valid = new ArrayList<>();
+
+        long count = schema().policy(ErrorPolicy.failFast()).columnar(4)
+                .ndjson(new ByteArrayInputStream(json.toString().getBytes(StandardCharsets.UTF_8)), batch -> {
+                    sizes.add(batch.size());
+                    for (int row = 0; row < batch.size(); row++) {
+                        assertTrue(batch.errors(row).size() <= 1);
+                        if (batch.ints("foo").isValid(row)) {
+                            valid.add(batch.ints("foo").get(row));
+                        }
+                    }
+                    assertTrue(batch.strings("bar").dictionary().size() <= 2);
+                });
+
+        assertEquals(count, 10L);
+        assertEquals(sizes, Arrays.asList(4, 4, 2));
+        assertEquals(valid, Arrays.asList(1, 2, 4, 5, 7, 8));
+    }
+
+    @Test
+    void ndjson_MalformedTest() throws IOException, InstantiationException, IllegalAccessException {
+        String json = "{\"foo\": \"1\"}\n{\"foo\": \"2\", \"bar\": \n\n{\"foo\": \"3\"}\n";
+        List<String> rows = new ArrayList<>();
+
+        long count = schema().columnar(4).ndjson(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), batch -> {
+            for (int row = 0; row < batch.size(); row++) {
+                rows.add(batch.isValid(row) ? String.valueOf(batch.ints("foo").get(row)) : batch.errors(row).get(0).getField());
+                assertEquals(batch.ints("foo").isValid(row), batch.isValid(row));
+            }
+        });
+
+        assertEquals(count, 3L);
+        assertEquals(rows, Arrays.asList("1", "bar", "3"));
+    }
+
+    @Test
+    void append_MalformedTest() throws IOException, InstantiationException, IllegalAccessException {
+        ColumnarSanitizer columnar = schema().columnar(2);
+        ColumnBatch batch = columnar.newBatch();
+
+        assertFalse(columnar.append(batch, "{\"foo\": \"1\", \"bar\": \"a\""));
+
+        assertEquals(batch.size(), 1);
+        assertFalse(batch.isValid(0));
+        assertFalse(batch.ints("foo").isValid(0));
+        assertEquals(batch.ints("foo").get(0), 0);
+        assertNull(batch.strings("bar").get(0));
+        assertTrue(batch.errors(0).get(0).getMessage().startsWith("Malformed json: "));
+    }
+
+    @Test
+    void append_CachedTypeTest() throws ValidationException {
+        ColumnBatch batch = new ColumnBatch(Collections.singletonMap("foo", CachedType.of(new IntegerType(), 100)), 2);
+
+        batch.find("foo").set(batch.addRow(), "7");
+        int row = batch.addRow();
+        assertThrows(ValidationException.class, () -> batch.find("foo").set(row, "x"));
+
+        assertEquals(batch.ints("foo").get(0), 7);
+        assertFalse(batch.ints("foo").isValid(1));
+    }
+
+    @Test
+    void ndjson_RuntimeExceptionTest() throws IOException, InstantiationException, IllegalAccessException {
+        String json = "{\"foo\": \"99999999999\", \"bar\": \"a\"}\n{\"foo\": \"1\"}\n";
+        List<ColumnBatch> batches = new ArrayList<>();
+
+        long count = schema().columnar(4).ndjson(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), batch -> {
+            assertFalse(batch.isValid(0));
+            assertFalse(batch.ints("foo").isValid(0));
+            assertEquals(batch.strings("bar").get(0), "a");
+            assertTrue(batch.errors(0).get(0).getMessage().startsWith("Sanitization failed: java.lang.NumberFormatException"));
+            assertEquals(batch.ints("foo").get(1), 1);
+            batches.add(batch);
+        });
+
+        assertEquals(count, 2L);
+        assertEquals(batches.size(), 1);
+    }
+
+    @Test
+    void append_RepeatedKeyTest() throws IOException, InstantiationException, IllegalAccessException {
+        ColumnarSanitizer columnar = schema().columnar(2);
+        ColumnBatch batch = columnar.newBatch();
+
+        assertTrue(columnar.append(batch, "{\"foo\": \"x\", \"bar\": \"a\", \"foo\": \"2\"}"));
+        assertFalse(columnar.append(batch, "{\"foo\": \"1\", \"foo\": \"y\"}"));
+
+        assertEquals(batch.ints("foo").get(0), 2);
+        assertTrue(batch.errors(0).isEmpty());
+        assertFalse(batch.ints("foo").isValid(1));
+        assertEquals(batch.ints("foo").get(1), 0);
+        assertEquals(batch.errors(1).size(), 1);
+        assertEquals(batch.errors(1).get(0).toString(), "foo: Invalid value \"y\" for type \"IntegerType\"");
+    }
+}
@@ -0,0 +1,131 @@
+import classes.annotated.PrimitiveArray;
+import classes.annotated.PrimitiveArraySanitizer;
+import classes.annotated.Simple;
+import classes.annotated.SimpleNestedNested;
+import classes.annotated.SimpleNestedNestedSanitizer;
+import classes.annotated.SimpleSanitizer;
+import org.junit.jupiter.api.Test;
+import validation.ErrorPolicy;
+import validation.SanitizationException;
+
+import javax.xml.bind.ValidationException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static java.util.Optional.ofNullable;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sanitizers generated from the annotations of the test classes behave as the equivalent {@link SanitizerSchema}.
+ */
+class GeneratedSanitizerTest {
+    private static String CORRECT = getResource("correct/simple.json");
+    private static String CORRECT_NESTED_NESTED = getResource("correct/simple_nested_nested.json");
+    private static String CORRECT_PRIMITIVE_ARRAY = getResource("correct/primitive_array.json");
+    private static String CORRECT_NOT_EXISTS_FIELDS = getResource("correct/simple_not_exists_fields.json");
+
+    private static String INCORRECT = getResource("incorrect/simple.json");
+    private static String INCORRECT_NESTED_NESTED = getResource("incorrect/simple_nested_nested.json");
+
+    private static String getResource(String path) {
+        return ofNullable(path)
+                .map(Sanitizer.class::getResourceAsStream)
+                .map(r -> new BufferedReader(new InputStreamReader(r)).lines().collect(Collectors.joining()))
+                .orElse("");
+    }
+
+    @Test
+    void apply_SimpleTest() throws IOException, ValidationException {
+        Simple simple = SimpleSanitizer.apply(CORRECT);
+
+        assertEquals(simple.getFoo(), Integer.valueOf(123));
+        assertEquals(simple.getBar(), "asd");
+        assertEquals(simple.getBaz(), "79502885623");
+    }
+
+    @Test
+    void apply_SimpleNestedNestedTest() throws IOException, ValidationException {
+        SimpleNestedNested simple = SimpleNestedNestedSanitizer.apply(CORRECT_NESTED_NESTED);
+
+        assertEquals(simple.getFoo(), Integer.valueOf(123));
+        assertEquals(simple.getNested().getBar(), "asd");
+        assertEquals(simple.getNested().getNested().getBaz(), "79502885623");
+        assertEquals(simple.getNested().getNested().getArray().size(), 3);
+        assertTrue(simple.getNested().getNested().getArray().stream().anyMatch(e -> e.equals(123.2)));
+
+        simple = SimpleNestedNestedSanitizer.apply(CORRECT_NOT_EXISTS_FIELDS);
+        assertNull(simple.getBaz());
+        assertNull(simple.getNested().getFoo());
+        assertNull(simple.getNested().getNested().getArray());
+    }
+
+    @Test
+    void apply_PrimitiveArrayTest() throws IOException, ValidationException {
+        PrimitiveArray array = PrimitiveArraySanitizer.apply(CORRECT_PRIMITIVE_ARRAY);
+
+        assertArrayEquals(array.getInts(), new int[]{1, 2, 3});
+        assertArrayEquals(array.getLongs(), new long[]{4, 5});
+        assertEquals(array.getDoubles().length, 18);
+        assertEquals(array.getDoubles()[17], 15.0);
+    }
+
+    @Test
+    void apply_IncorrectTest() throws InstantiationException, IllegalAccessException {
+        Exception exception = assertThrows(ValidationException.class, () -> SimpleSanitizer.apply(INCORRECT));
+        assertTrue(exception.getMessage().contains("foo: Invalid value \"123a\" for type \"IntegerType\""));
+
+        SanitizerSchema<SimpleNestedNested> schema = SanitizerSchema.of(SimpleNestedNested.class)
+                .map("foo", "integer")
+                .map("bar", "string")
+                .map("baz", "phone")
+                .map("nested", nestedSpec());
+
+        SanitizationException generated = assertThrows(SanitizationException.class, () -> SimpleNestedNestedSanitizer.apply(INCORRECT_NESTED_NESTED));
+        SanitizationException reflective = assertThrows(SanitizationException.class, () -> schema.apply(INCORRECT_NESTED_NESTED));
+        assertEquals(generated.getErrors().size(), 3);
+        assertEquals(sorted(generated), sorted(reflective));
+
+        SanitizationException failFast = assertThrows(SanitizationException.class,
+                () -> SimpleNestedNestedSanitizer.apply(INCORRECT_NESTED_NESTED, ErrorPolicy.failFast()));
+        assertEquals(failFast.getErrors().size(), 1);
+    }
+
+    @Test
+    void apply_RepeatedKeyTest() throws IOException, ValidationException {
+        assertEquals(SimpleSanitizer.apply("{\"foo\": \"1a\", \"foo\": \"2\"}").getFoo(), Integer.valueOf(2));
+        assertEquals(SimpleNestedNestedSanitizer.apply("{\"nested\": {\"foo\": \"1a\"}, \"nested\": {\"foo\": \"2\"}}")
+                .getNested().getFoo(), Integer.valueOf(2));
+
+        SanitizationException exception = assertThrows(SanitizationException.class,
+                () -> SimpleSanitizer.apply("{\"foo\": \"1\", \"foo\": \"2a\"}"));
+        assertEquals(exception.getErrors().size(), 1);
+    }
+
+    private static List<String> sorted(SanitizationException exception) {
+        return exception.getErrors().stream().map(Object::toString).sorted().collect(Collectors.toList());
+    }
+
+    private static Map<String, Object> nestedSpec() {
+        Map<String, Object> nested2 = new HashMap<>();
+        nested2.put("foo", "integer");
+        nested2.put("bar", "string");
+        nested2.put("baz", "phone");
+        nested2.put("array", "double[]");
+
+        Map<String, Object> nested1 = new HashMap<>();
+        nested1.put("foo", "integer");
+        nested1.put("bar", "string");
+        nested1.put("baz", "phone");
+        nested1.put("nested", nested2);
+        return nested1;
+    }
+}
@@ -0,0 +1,117 @@
+import classes.SimpleArray;
+import classes.SimpleNested;
+import metrics.MetricsRegistry;
+import metrics.SanitizerMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import type.DoubleType;
+import type.IntegerType;
+import type.PhoneType;
+import type.StringType;
+
+import javax.management.ObjectName;
+import javax.xml.bind.ValidationException;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static java.util.Optional.ofNullable;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsTest {
+    private static String CORRECT_ARRAY = getResource("correct/simple_array.json");
+    private static String INCORRECT_ARRAY = getResource("incorrect/simple_array_1.json");
+    private static String CORRECT_NESTED = getResource("correct/simple_nested.json");
+
+    private static String getResource(String path) {
+        return ofNullable(path)
+                .map(Sanitizer.class::getResourceAsStream)
+                .map(r -> new BufferedReader(new InputStreamReader(r)).lines().collect(Collectors.joining()))
+                .orElse("");
+    }
+
+    @AfterEach
+    void disable() {
+        SanitizerMetrics.disable();
+    }
+
+    @Test
+    void registry_CountersTest() throws Exception {
+        MetricsRegistry registry = SanitizerMetrics.enable();
+        SanitizerSchema<SimpleArray> schema = SanitizerSchema.of(SimpleArray.class)
+                .map("foo", IntegerType.class)
+                .map("array", DoubleType[].class);
+
+        schema.apply(CORRECT_ARRAY);
+        schema.stream(CORRECT_ARRAY);
+        assertThrows(ValidationException.class, () -> schema.stream(INCORRECT_ARRAY));
+
+        assertEquals(registry.documents(), 3L);
+        assertEquals(registry.invalidDocuments(), 1L);
+        assertEquals(registry.latency().count(), 3L);
+        assertEquals(registry.types().get("IntegerType").values(), 3L);
+        assertEquals(registry.types().get("DoubleType").values(), 8L);
+        assertEquals(registry.types().get("DoubleType").failures(), 1L);
+        assertEquals(registry.fields().get("SimpleArray.array").failures(), 1L);
+        assertEquals(registry.fields().get("SimpleArray.foo").failures(), 0L);
+        assertFalse(registry.fields().containsKey("Simple.foo"));
+        assertEquals(registry.arrays().get("SimpleArray.array").count(), 2L);
+        assertEquals(registry.arrays().get("SimpleArray.array").max(), 3L);
+    }
+
+    @Test
+    void registry_NestedTest() throws Exception {
+        MetricsRegistry registry = SanitizerMetrics.enable();
+        Map<String, Object> nested = new HashMap<>();
+        nested.put("foo", IntegerType.class);
+        nested.put("bar", StringType.class);
+        nested.put("baz", PhoneType.class);
+
+        Sanitizer.of(CORRECT_NESTED, SimpleNested.class)
+                .map("foo", IntegerType.class)
+                .map("nested", nested)
+                .get();
+
+        assertEquals(registry.documents(), 1L);
+        assertEquals(registry.depth().max(), 1L);
+        assertEquals(registry.fields().get("SimpleNested.nested/baz").values(), 1L);
+        assertFalse(registry.fields().containsKey("SimpleNested.baz"));
+        assertEquals(ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(new ObjectName(SanitizerMetrics.OBJECT_NAME), "Documents"), 1L);
+    }
+
+    @Test
+    void registry_EnabledAfterMappingTest() throws Exception {
+        Map<String, Object> nested = new HashMap<>();
+        nested.put("baz", PhoneType.class);
+        SanitizerSchema<SimpleNested> schema = SanitizerSchema.of(SimpleNested.class)
+                .map("foo", IntegerType.class)
+                .map("nested", nested);
+        schema.apply(CORRECT_NESTED);
+
+        MetricsRegistry registry = SanitizerMetrics.enable();
+        schema.stream(CORRECT_NESTED);
+
+        assertEquals(registry.fields().get("SimpleNested.foo").values(), 1L);
+        assertEquals(registry.fields().get("SimpleNested.nested/baz").values(), 1L);
+    }
+
+    @Test
+    void disable_NoopTest() throws Exception {
+        MetricsRegistry registry = SanitizerMetrics.enable();
+        SanitizerMetrics.disable();
+
+        SanitizerSchema.of(SimpleArray.class).map("foo", IntegerType.class).apply(CORRECT_ARRAY);
+
+        assertFalse(SanitizerMetrics.isEnabled());
+        assertEquals(registry.documents(), 0L);
+        assertTrue(registry.types().isEmpty());
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(new ObjectName(SanitizerMetrics.OBJECT_NAME)));
+    }
+}
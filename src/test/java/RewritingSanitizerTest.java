@@ -0,0 +1,68 @@
+import org.junit.jupiter.api.Test;
+import type.DoubleType;
+import type.IntegerType;
+import type.PhoneType;
+import type.StringType;
+import validation.ErrorPolicy;
+import validation.SanitizationException;
+
+import javax.xml.bind.ValidationException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RewritingSanitizerTest {
+    private static final String JSON = "{\"foo\": \"123\", \"extra\": {\"a\": [1, \"b\"]}, \"baz\": \"8 (950) 288-56-23\", "
+            + "\"nested\": {\"array\": [\"123.1\", \"123,2\", 123], \"bar\": \"asd\", \"skipped\": true}}";
+
+    private static RewritingSanitizer sanitizer() throws InstantiationException, IllegalAccessException {
+        Map<String, Object> nested = new HashMap<>();
+        nested.put("bar", StringType.class);
+        nested.put("array", DoubleType[].class);
+
+        return RewritingSanitizer.create()
+                .map("foo", IntegerType.class)
+                .map("baz", PhoneType.class)
+                .map("nested", nested);
+    }
+
+    @Test
+    void rewrite_KeepUnmappedTest() throws IOException, InstantiationException, IllegalAccessException, ValidationException {
+        assertEquals(sanitizer().rewrite(JSON), "{\"foo\":123,\"extra\":{\"a\":[1,\"b\"]},\"baz\":\"79502885623\","
+                + "\"nested\":{\"array\":[123.1,123.2,123.0],\"bar\":\"asd\",\"skipped\":true}}");
+    }
+
+    @Test
+    void rewrite_DropUnmappedTest() throws IOException, InstantiationException, IllegalAccessException, ValidationException {
+        RewritingSanitizer sanitizer = sanitizer().unmapped(RewritingSanitizer.Unmapped.DROP);
+        String expected = "{\"foo\":123,\"baz\":\"79502885623\",\"nested\":{\"array\":[123.1,123.2,123.0],\"bar\":\"asd\"}}";
+
+        assertEquals(sanitizer.rewrite(JSON), expected);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        sanitizer.rewrite(new ByteArrayInputStream(JSON.getBytes(StandardCharsets.UTF_8)), out);
+        assertEquals(new String(out.toByteArray(), StandardCharsets.UTF_8), expected);
+    }
+
+    @Test
+    void rewrite_ErrorsTest() throws InstantiationException, IllegalAccessException {
+        String json = "{\"foo\": \"12x\", \"baz\": \"123\", \"nested\": {\"array\": [\"1\", \"x\", \"y\"], \"bar\": \"asd\"}}";
+
+        SanitizationException exception = assertThrows(SanitizationException.class, () -> sanitizer().rewrite(json));
+        assertEquals(exception.getErrors().size(), 3);
+        assertEquals(exception.getErrors().get(0).toString(), "foo: Invalid value \"12x\" for type \"IntegerType\"");
+        assertEquals(exception.getErrors().get(2).toString(), "nested/array[1]: Invalid value \"x\" for type \"DoubleType\"");
+
+        exception = assertThrows(SanitizationException.class, () -> sanitizer().policy(ErrorPolicy.failFast()).rewrite(json));
+        assertEquals(exception.getErrors().size(), 1);
+
+        exception = assertThrows(SanitizationException.class, () -> RewritingSanitizer.create().map("foo", "uuid").rewrite(json));
+        assertEquals(exception.getErrors().get(0).toString(), "foo: Type \"uuid\" not support");
+    }
+}
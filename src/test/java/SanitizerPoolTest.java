@@ -0,0 +1,136 @@
+import classes.SimpleNested;
+import classes.SimpleNestedNested;
+import org.junit.jupiter.api.Test;
+import type.DoubleType;
+import type.IntegerType;
+import type.PhoneType;
+import type.StringType;
+
+import javax.xml.bind.ValidationException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static java.util.Optional.ofNullable;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SanitizerPoolTest {
+    private static String CORRECT_NESTED_NESTED = getResource("correct/simple_nested_nested.json");
+    private static String CORRECT_NOT_EXISTS_FIELDS = getResource("correct/simple_not_exists_fields.json");
+    private static String INCORRECT_NESTED_NESTED = getResource("incorrect/simple_nested_nested.json");
+
+    private static String getResource(String path) {
+        return ofNullable(path)
+                .map(Sanitizer.class::getResourceAsStream)
+                .map(r -> new BufferedReader(new InputStreamReader(r)).lines().collect(Collectors.joining()))
+                .orElse("");
+    }
+
+    private static SanitizerPool<SimpleNestedNested> pool() throws InstantiationException, IllegalAccessException {
+        Map<String, Object> nested2 = new HashMap<>();
+        nested2.put("foo", IntegerType.class);
+        nested2.put("bar", StringType.class);
+        nested2.put("baz", PhoneType.class);
+        nested2.put("array", DoubleType[].class);
+
+        Map<String, Object> nested1 = new HashMap<>();
+        nested1.put("foo", IntegerType.class);
+        nested1.put("bar", StringType.class);
+        nested1.put("baz", PhoneType.class);
+        nested1.put("nested", nested2);
+
+        return SanitizerSchema.of(SimpleNestedNested.class)
+                .map("foo", IntegerType.class)
+                .map("bar", StringType.class)
+                .map("baz", PhoneType.class)
+                .map("nested", nested1)
+                .pool(16);
+    }
+
+    @Test
+    void stream_ReuseTest() throws IOException, InstantiationException, IllegalAccessException, ValidationException {
+        SanitizerPool<SimpleNestedNested> pool = pool();
+
+        SimpleNestedNested first;
+        SimpleNested nested;
+        List<Double> array;
+        try (SanitizerPool.Lease<SimpleNestedNested> lease = pool.stream(CORRECT_NESTED_NESTED)) {
+            first = lease.get();
+            nested = first.getNested();
+            array = first.getNested().getNested().getArray();
+            assertEquals(array.size(), 3);
+        }
+        assertNull(first.getFoo());
+        assertNull(first.getNested());
+        assertTrue(array.isEmpty());
+
+        try (SanitizerPool.Lease<SimpleNestedNested> lease = pool.stream(CORRECT_NESTED_NESTED)) {
+            assertSame(lease.get(), first);
+            assertSame(lease.get().getNested(), nested);
+            assertSame(lease.get().getNested().getNested().getArray(), array);
+            assertEquals(lease.get().getFoo(), Integer.valueOf(123));
+            assertEquals(array.size(), 3);
+        }
+
+        try (SanitizerPool.Lease<SimpleNestedNested> lease = pool.stream(CORRECT_NOT_EXISTS_FIELDS)) {
+            assertNull(lease.get().getBaz());
+            assertNull(lease.get().getNested().getFoo());
+            assertNull(lease.get().getNested().getNested().getArray());
+            lease.close();
+            assertThrows(IllegalStateException.class, lease::get);
+        }
+    }
+
+    @Test
+    void stream_IncorrectTest() throws IOException, InstantiationException, IllegalAccessException, ValidationException {
+        SanitizerPool<SimpleNestedNested> pool = pool();
+
+        Exception exception = assertThrows(ValidationException.class, () -> pool.stream(INCORRECT_NESTED_NESTED));
+        assertEquals(exception.getMessage().split(System.getProperty("line.separator")).length, 3);
+
+        try (SanitizerPool.Lease<SimpleNestedNested> lease = pool.stream(CORRECT_NESTED_NESTED)) {
+            assertEquals(lease.get().getNested().getNested().getBaz(), "79502885623");
+        }
+    }
+
+    @Test
+    void stream_ConcurrentTest() throws Exception {
+        SanitizerPool<SimpleNestedNested> pool = pool();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    int valid = 0;
+                    for (int i = 0; i < 2000; i++) {
+                        try (SanitizerPool.Lease<SimpleNestedNested> lease = pool.stream(CORRECT_NESTED_NESTED)) {
+                            SimpleNestedNested simple = lease.get();
+                            if (simple.getNested().getNested().getArray().size() == 3
+                                    && "79502885623".equals(simple.getNested().getBaz())) {
+                                valid++;
+                            }
+                        }
+                    }
+                    return valid;
+                }));
+            }
+            for (Future<Integer> future : futures) {
+                assertEquals(future.get(), Integer.valueOf(2000));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,364 @@
+import classes.PrimitiveArray;
+import classes.Simple;
+import classes.SimpleNested;
+import classes.SimpleNestedNested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import type.ArrayElements;
+import type.BaseType;
+import type.DoubleType;
+import type.IntegerType;
+import type.LongTransformer;
+import type.PhoneType;
+import type.StringType;
+import validation.ErrorPolicy;
+import validation.SanitizationException;
+
+import javax.xml.bind.ValidationException;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static java.util.Optional.ofNullable;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SanitizerSchemaTest {
+    private static String CORRECT = getResource("correct/simple.json");
+    private static String CORRECT_NESTED_NESTED = getResource("correct/simple_nested_nested.json");
+    private static String CORRECT_PRIMITIVE_ARRAY = getResource("correct/primitive_array.json");
+    private static String CORRECT_NOT_EXISTS_FIELDS = getResource("correct/simple_not_exists_fields.json");
+
+    private static String INCORRECT = getResource("incorrect/simple.json");
+    private static String INCORRECT_NESTED_NESTED = getResource("incorrect/simple_nested_nested.json");
+
+    private static String getResource(String path) {
+        return ofNullable(path)
+                .map(Sanitizer.class::getResourceAsStream)
+                .map(r -> new BufferedReader(new InputStreamReader(r)).lines().collect(Collectors.joining()))
+                .orElse("");
+    }
+
+    private static SanitizerSchema<SimpleNestedNested> nestedNestedSchema() throws InstantiationException, IllegalAccessException {
+        Map<String, Object> nested2 = new HashMap<>();
+        nested2.put("foo", IntegerType.class);
+        nested2.put("bar", StringType.class);
+        nested2.put("baz", PhoneType.class);
+        nested2.put("array", DoubleType[].class);
+
+        Map<String, Object> nested1 = new HashMap<>();
+        nested1.put("foo", IntegerType.class);
+        nested1.put("bar", StringType.class);
+        nested1.put("baz", PhoneType.class);
+        nested1.put("nested", nested2);
+
+        return SanitizerSchema.of(SimpleNestedNested.class)
+                .map("foo", IntegerType.class)
+                .map("bar", StringType.class)
+                .map("baz", PhoneType.class)
+                .map("nested", nested1);
+    }
+
+    @Test
+    void apply_SimpleTest() throws IOException, InstantiationException, IllegalAccessException, ValidationException {
+        SanitizerSchema<Simple> schema = SanitizerSchema.of(Simple.class)
+                .map("foo", IntegerType.class)
+                .map("bar", StringType.class)
+                .map("baz", PhoneType.class);
+
+        Simple first = schema.apply(CORRECT);
+        Simple second = schema.apply(CORRECT);
+
+        assertNotSame(first, second);
+        assertEquals(second.getFoo(), Integer.valueOf(123));
+        assertEquals(second.getBar(), "asd");
+        assertEquals(second.getBaz(), "79502885623");
+    }
+
+    @Test
+    void apply_SimpleNestedNestedTest() throws IOException, InstantiationException, IllegalAccessException, ValidationException {
+        SanitizerSchema<SimpleNestedNested> schema = nestedNestedSchema();
+
+        SimpleNestedNested simple = schema.apply(CORRECT_NESTED_NESTED);
+        assertEquals(simple.getNested().getNested().getBaz(), "79502885623");
+        assertEquals(simple.getNested().getNested().getArray().size(), 3);
+        assertTrue(simple.getNested().getNested().getArray().stream().anyMatch(e -> e.equals(123.2)));
+
+        simple = schema.apply(CORRECT_NOT_EXISTS_FIELDS);
+        assertNull(simple.getBaz());
+        assertNull(simple.getNested().getFoo());
+        assertNull(simple.getNested().getNested().getArray());
+    }
+
+    @Test
+    void apply_IncorrectTest() throws InstantiationException, IllegalAccessException {
+        SanitizerSchema<Simple> simpleSchema = SanitizerSchema.of(Simple.class)
+                .map("foo", IntegerType.class)
+                .map("bar", StringType.class)
+                .map("baz", PhoneType.class);
+
+        Exception exception = assertThrows(ValidationException.class, () -> simpleSchema.apply(INCORRECT));
+        assertEquals(exception.getMessage().split(System.getProperty("line.separator")).length, 2);
+        assertTrue(exception.getMessage().contains("foo: Invalid value \"123a\" for type \"IntegerType\""));
+
+        SanitizerSchema<SimpleNestedNested> schema = nestedNestedSchema();
+
+        exception = assertThrows(ValidationException.class, () -> schema.apply(INCORRECT_NESTED_NESTED));
+        assertEquals(exception.getMessage().split(System.getProperty("line.separator")).length, 3);
+        assertTrue(exception.getMessage().contains("nested/foo: Invalid value \"123d\" for type \"IntegerType\""));
+        assertTrue(exception.getMessage().contains("nested/nested/array[2]: Invalid value \"123x\" for type \"DoubleType\""));
+        assertTrue(exception.getMessage().contains("nested/nested/baz: Invalid value \"8 (950) 288\" for type \"PhoneType\""));
+    }
+
+    @Test
+    void policy_ErrorBudgetTest() throws InstantiationException, IllegalAccessException {
+        SanitizerSchema<SimpleNestedNested> failFast = nestedNestedSchema().policy(ErrorPolicy.failFast());
+
+        SanitizationException exception = assertThrows(SanitizationException.class, () -> failFast.apply(INCORRECT_NESTED_NESTED));
+        assertEquals(exception.getErrors().size(), 1);
+        assertEquals(exception.getErrors().get(0).toString(), "nested/foo: Invalid value \"123d\" for type \"IntegerType\"");
+
+        exception = assertThrows(SanitizationException.class, () -> failFast.stream(INCORRECT_NESTED_NESTED + "{\"foo\": "));
+        assertEquals(exception.getErrors().size(), 1);
+
+        SanitizerSchema<SimpleNestedNested> limit = nestedNestedSchema().policy(ErrorPolicy.limit(2));
+
+        exception = assertThrows(SanitizationException.class, () -> limit.apply(INCORRECT_NESTED_NESTED));
+        assertEquals(exception.getErrors().size(), 2);
+        exception = assertThrows(SanitizationException.class, () -> limit.stream(INCORRECT_NESTED_NESTED));
+        assertEquals(exception.getErrors().size(), 2);
+    }
+
+    @Test
+    void stream_SimpleNestedNestedTest() throws IOException, InstantiationException, IllegalAccessException, ValidationException {
+        SanitizerSchema<SimpleNestedNested> schema = nestedNestedSchema();
+
+        SimpleNestedNested simple = schema.stream(CORRECT_NESTED_NESTED);
+        assertEquals(simple.getFoo(), Integer.valueOf(123));
+        assertEquals(simple.getNested().getBar(), "asd");
+        assertEquals(simple.getNested().getNested().getBaz(), "79502885623");
+        assertEquals(simple.getNested().getNested().getArray().size(), 3);
+        assertTrue(simple.getNested().getNested().getArray().stream().anyMatch(e -> e.equals(123.2)));
+
+        simple = schema.stream(CORRECT_NOT_EXISTS_FIELDS);
+        assertNull(simple.getBaz());
+        assertNull(simple.getNested().getFoo());
+        assertNull(simple.getNested().getNested().getArray());
+    }
+
+    @Test
+    void stream_SkipUnmappedTest() throws IOException, InstantiationException, IllegalAccessException, ValidationException {
+        SanitizerSchema<Simple> schema = SanitizerSchema.of(Simple.class)
+                .map("foo", IntegerType.class)
+                .map("baz", PhoneType.class);
+
+        Simple simple = schema.stream("{\"blob\": {\"foo\": \"x\", \"list\": [[1], {\"baz\": 2}]}, \"foo\": 123, \"bar\": \"asd\"}");
+        assertEquals(simple.getFoo(), Integer.valueOf(123));
+        assertNull(simple.getBar());
+        assertNull(simple.getBaz());
+    }
+
+    @Test
+    void stream_IncorrectTest() throws InstantiationException, IllegalAccessException {
+        SanitizerSchema<SimpleNestedNested> schema = nestedNestedSchema();
+
+        Exception exception = assertThrows(ValidationException.class, () -> schema.stream(INCORRECT_NESTED_NESTED));
+        assertEquals(exception.getMessage().split(System.getProperty("line.separator")).length, 3);
+        assertTrue(exception.getMessage().contains("nested/foo: Invalid value \"123d\" for type \"IntegerType\""));
+        assertTrue(exception.getMessage().contains("nested/nested/array[2]: Invalid value \"123x\" for type \"DoubleType\""));
+        assertTrue(exception.getMessage().contains("nested/nested/baz: Invalid value \"8 (950) 288\" for type \"PhoneType\""));
+    }
+
+    @Test
+    void stream_RepeatedKeyTest() throws IOException, InstantiationException, IllegalAccessException, ValidationException {
+        SanitizerSchema<SimpleNestedNested> schema = nestedNestedSchema();
+        String valid = "{\"foo\": \"123d\", \"bar\": \"asd\", \"foo\": 123, "
+                + "\"nested\": {\"nested\": {\"array\": [\"x\"]}}, \"nested\": {\"foo\": \"1\", \"foo\": \"2\"}}";
+
+        for (SimpleNestedNested simple : Arrays.asList(schema.apply(valid), schema.stream(valid))) {
+            assertEquals(simple.getFoo(), Integer.valueOf(123));
+            assertEquals(simple.getNested().getFoo(), Integer.valueOf(2));
+            assertNull(simple.getNested().getNested());
+        }
+        assertEquals(Sanitizer.of("{\"foo\": \"1\", \"foo\": \"2\"}", Simple.class).map("foo", IntegerType.class).get().getFoo(),
+                Integer.valueOf(2));
+
+        List<String> documents = Arrays.asList(
+                "{\"foo\": 123, \"bar\": \"asd\", \"foo\": \"123d\"}",
+                "{\"nested\": {\"foo\": \"x\", \"nested\": {\"array\": [\"x\"], \"array\": [\"1\"]}}, "
+                        + "\"nested\": {\"foo\": \"x\", \"nested\": {\"array\": [\"1\"], \"array\": [\"1\", \"y\"]}}}");
+        List<List<String>> expected = Arrays.asList(
+                Collections.singletonList("foo: Invalid value \"123d\" for type \"IntegerType\""),
+                Arrays.asList("nested/foo: Invalid value \"x\" for type \"IntegerType\"",
+                        "nested/nested/array[1]: Invalid value \"y\" for type \"DoubleType\""));
+
+        for (int i = 0; i < documents.size(); i++) {
+            String json = documents.get(i);
+            assertEquals(errors(() -> schema.apply(json)), expected.get(i));
+            assertEquals(errors(() -> schema.stream(json)), expected.get(i));
+        }
+    }
+
+    private static List<String> errors(Executable sanitize) {
+        return assertThrows(SanitizationException.class, sanitize).getErrors().stream()
+                .map(Object::toString)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void stream_PrimitiveArrayTest() throws IOException, InstantiationException, IllegalAccessException, ValidationException {
+        PrimitiveArray array = SanitizerSchema.of(PrimitiveArray.class)
+                .map("ints", IntegerType[].class)
+                .map("longs", IntegerType[].class)
+                .map("doubles", DoubleType[].class)
+                .stream(CORRECT_PRIMITIVE_ARRAY);
+
+        assertArrayEquals(array.getInts(), new int[]{1, 2, 3});
+        assertArrayEquals(array.getLongs(), new long[]{4, 5});
+        assertEquals(array.getDoubles().length, 18);
+        assertEquals(array.getDoubles()[2], 123.0);
+        assertEquals(array.getDoubles()[17], 15.0);
+    }
+
+    @Test
+    void map_PrimitiveArrayFitTest() throws IOException, InstantiationException, IllegalAccessException, ValidationException {
+        SanitizerSchema<PrimitiveArray> schema = SanitizerSchema.of(PrimitiveArray.class);
+
+        assertThrows(IllegalArgumentException.class, () -> schema.map("ints", PhoneType[].class));
+        assertThrows(IllegalArgumentException.class, () -> schema.map("ints", DoubleType[].class));
+        assertThrows(IllegalArgumentException.class, () -> schema.map("longs", DoubleType[].class));
+        assertEquals(schema.map("doubles", IntegerType[].class).stream("{\"doubles\": [\"2\"]}").getDoubles()[0], 2.0);
+
+        ArrayElements elements = ArrayElements.factory(long[].class, new LongType()).create(1);
+        elements.add("99999999999");
+        elements.add("1");
+        assertArrayEquals((long[]) elements.build(), new long[]{99999999999L, 1});
+    }
+
+    @Test
+    void apply_ByteInputTest() throws IOException, InstantiationException, IllegalAccessException, ValidationException {
+        SanitizerSchema<SimpleNestedNested> schema = nestedNestedSchema();
+        byte[] json = CORRECT_NESTED_NESTED.getBytes(StandardCharsets.UTF_8);
+        byte[] padded = ("  garbage" + CORRECT_NESTED_NESTED + "garbage").getBytes(StandardCharsets.UTF_8);
+        ByteBuffer direct = ByteBuffer.allocateDirect(json.length).put(json);
+        direct.flip();
+
+        List<SimpleNestedNested> results = Arrays.asList(
+                schema.apply(json),
+                schema.apply(padded, 9, json.length),
+                schema.apply(ByteBuffer.wrap(padded, 9, json.length)),
+                schema.apply(direct),
+                schema.apply(new ByteArrayInputStream(json)),
+                schema.stream(padded, 9, json.length),
+                schema.stream(ByteBuffer.wrap(padded, 9, json.length)),
+                schema.stream(direct),
+                schema.stream(new ByteArrayInputStream(json)));
+
+        assertEquals(direct.position(), 0);
+        for (SimpleNestedNested simple : results) {
+            assertEquals(simple.getFoo(), Integer.valueOf(123));
+            assertEquals(simple.getNested().getNested().getBaz(), "79502885623");
+            assertEquals(simple.getNested().getNested().getArray().size(), 3);
+        }
+    }
+
+    @Test
+    void apply_PathTest() throws IOException, InstantiationException, IllegalAccessException, ValidationException {
+        SanitizerSchema<SimpleNestedNested> schema = nestedNestedSchema();
+        Path small = Files.createTempFile("small", ".json");
+        Path large = Files.createTempFile("large", ".json");
+        try {
+            Files.write(small, CORRECT_NESTED_NESTED.getBytes(StandardCharsets.UTF_8));
+            char[] blob = new char[(int) JsonInput.MAP_THRESHOLD];
+            Arrays.fill(blob, 'x');
+            Files.write(large, ("{\"blob\": \"" + new String(blob) + "\", " + CORRECT_NESTED_NESTED.substring(1))
+                    .getBytes(StandardCharsets.UTF_8));
+
+            for (Path path : Arrays.asList(small, large)) {
+                assertEquals(schema.apply(path).getNested().getNested().getBaz(), "79502885623");
+                assertEquals(schema.stream(path).getNested().getNested().getBaz(), "79502885623");
+            }
+        } finally {
+            Files.delete(small);
+            Files.delete(large);
+        }
+    }
+
+    @Test
+    void apply_ProjectionTest() throws IOException, InstantiationException, IllegalAccessException, ValidationException {
+        SanitizerSchema<SimpleNestedNested> schema = nestedNestedSchema();
+        String json = "{\"blob\": {\"a\": [1, {\"b\": \"\\u0041\"}], \"foo\": \"x\"}, \"foo\": \"123\", "
+                + "\"nested\": {\"skipped\": [[]], \"nested\": {}, \"baz\": \"8 (950) 288-56-23\"}, \"tail\": null}";
+
+        assertEquals(schema.projection().read(schema.mapper(), schema.mapper().getFactory().createParser(json)).toString(),
+                "{\"foo\":\"123\",\"nested\":{\"nested\":{},\"baz\":\"8 (950) 288-56-23\"}}");
+
+        SimpleNestedNested simple = schema.apply(json);
+        assertEquals(simple.getFoo(), Integer.valueOf(123));
+        assertEquals(simple.getNested().getBaz(), "79502885623");
+        assertNull(simple.getNested().getNested().getFoo());
+    }
+
+    @Test
+    void patch_MergePatchTest() throws IOException, InstantiationException, IllegalAccessException, ValidationException {
+        SanitizerSchema<SimpleNestedNested> schema = nestedNestedSchema();
+        SimpleNestedNested simple = schema.apply(CORRECT_NESTED_NESTED);
+        SimpleNested nested = simple.getNested();
+
+        assertSame(schema.patch(simple, "{\"nested\": {\"nested\": {\"array\": [\"1,5\"], \"bar\": null}}, \"unknown\": 1}"), simple);
+        assertSame(simple.getNested(), nested);
+        assertEquals(simple.getNested().getNested().getArray(), Collections.singletonList(1.5));
+        assertNull(simple.getNested().getNested().getBar());
+        assertEquals(simple.getNested().getNested().getFoo(), Integer.valueOf(123));
+
+        SanitizationException exception = assertThrows(SanitizationException.class,
+                () -> schema.patch(simple, "{\"foo\": \"1\", \"nested\": {\"baz\": \"1\", \"nested\": {\"array\": [\"1\", \"x\"]}}}"));
+        assertEquals(exception.getErrors().size(), 2);
+        assertEquals(exception.getErrors().get(1).toString(), "nested/nested/array[1]: Invalid value \"x\" for type \"DoubleType\"");
+        assertEquals(simple.getFoo(), Integer.valueOf(123));
+        assertEquals(simple.getNested().getNested().getArray(), Collections.singletonList(1.5));
+
+        SimpleNestedNested empty = schema.patch(new SimpleNestedNested(), "{\"nested\": {\"nested\": {\"foo\": \"7\"}}}");
+        assertEquals(empty.getNested().getNested().getFoo(), Integer.valueOf(7));
+        assertNull(empty.getNested().getFoo());
+        assertThrows(ValidationException.class, () -> schema.patch(simple, "[]"));
+    }
+
+    public static class LongType extends BaseType<Long> implements LongTransformer {
+
+        @Override
+        public long transformLong(String value) throws ValidationException {
+            if (!validate(value)) {
+                throw invalid(value);
+            }
+            return Long.parseLong(value);
+        }
+
+        @Override
+        protected Boolean validate(String value) {
+            return value.matches("\\d{1,18}");
+        }
+
+        @Override
+        protected Long parseValue(String value) {
+            return Long.parseLong(value);
+        }
+    }
+}
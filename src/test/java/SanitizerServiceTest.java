@@ -0,0 +1,121 @@
+import classes.Simple;
+import org.junit.jupiter.api.Test;
+import type.BaseType;
+import type.IntegerType;
+import type.PhoneType;
+import type.StringType;
+
+import javax.xml.bind.ValidationException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SanitizerServiceTest {
+    private static final String CORRECT = "{\"foo\": \"%d\", \"bar\": \"asd\", \"baz\": \"8 (950) 288-56-23\"}";
+    private static final String INCORRECT = "{\"foo\": \"123a\", \"bar\": \"asd\", \"baz\": \"8 (950) 288-56-23\"}";
+
+    private static SanitizerSchema<Simple> schema() throws InstantiationException, IllegalAccessException {
+        return SanitizerSchema.of(Simple.class)
+                .map("foo", IntegerType.class)
+                .map("bar", StringType.class)
+                .map("baz", PhoneType.class);
+    }
+
+    @Test
+    void submit_CompletesTest() throws Exception {
+        List<CompletableFuture<Simple>> results = new ArrayList<>();
+        try (SanitizerService<Simple> service = SanitizerService.builder(schema())
+                .workers(2)
+                .queueCapacity(16)
+                .overflow(SanitizerService.Overflow.BLOCK)
+                .batchSize(8)
+                .start()) {
+            for (int i = 0; i < 1000; i++) {
+                results.add(service.submit(String.format(CORRECT, i)));
+            }
+            CompletableFuture<Simple> invalid = service.submit(INCORRECT);
+            ExecutionException exception = assertThrows(ExecutionException.class, invalid::get);
+            assertTrue(exception.getCause() instanceof ValidationException);
+            assertTrue(exception.getCause().getMessage().startsWith("foo: Invalid value \"123a\""));
+            ExecutionException malformed = assertThrows(ExecutionException.class, () -> service.submit("{\"foo\": ").get());
+            assertTrue(malformed.getCause().getMessage().startsWith("Malformed json"));
+            ExecutionException overflow = assertThrows(ExecutionException.class,
+                    () -> service.submit("{\"foo\": \"99999999999\"}").get());
+            assertTrue(overflow.getCause() instanceof ValidationException);
+            assertTrue(overflow.getCause().getMessage().startsWith("Sanitization failed"));
+
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(results.get(i).get().getFoo(), Integer.valueOf(i));
+            }
+            assertEquals(service.completedCount(), 1000L);
+            assertEquals(service.failedCount(), 3L);
+            assertEquals(service.latency().count(), 1003L);
+            assertTrue(service.batchSizes().max() <= 8);
+        }
+    }
+
+    @Test
+    void submit_OverflowTest() throws Exception {
+        SanitizerService<Simple> service = SanitizerService.builder(schema().map("bar", BlockingType.class))
+                .workers(1)
+                .queueCapacity(2)
+                .batchSize(1)
+                .start();
+        // keeps the only worker busy
+        service.submit("{\"bar\": \"block\"}");
+        BlockingType.STARTED.await();
+        CompletableFuture<Simple> expiring = service.submit(String.format(CORRECT, 1), 1, TimeUnit.MILLISECONDS);
+        service.submit(String.format(CORRECT, 2));
+        CompletableFuture<Simple> rejected = service.submit(String.format(CORRECT, 3));
+
+        assertEquals(service.queueDepth(), 2);
+        assertTrue(rejected.isCompletedExceptionally());
+        assertEquals(service.rejectedCount(), 1L);
+
+        Thread.sleep(10);
+        BlockingType.RELEASED.countDown();
+        ExecutionException exception = assertThrows(ExecutionException.class, expiring::get);
+        assertTrue(exception.getCause() instanceof TimeoutException);
+
+        service.close();
+        assertEquals(service.expiredCount(), 1L);
+        assertEquals(service.completedCount(), 2L);
+        ExecutionException closed = assertThrows(ExecutionException.class, () -> service.submit(String.format(CORRECT, 4)).get());
+        assertTrue(closed.getCause() instanceof RejectedExecutionException);
+    }
+
+    public static class BlockingType extends BaseType<String> {
+        static final CountDownLatch STARTED = new CountDownLatch(1);
+        static final CountDownLatch RELEASED = new CountDownLatch(1);
+
+        public BlockingType() {
+        }
+
+        @Override
+        protected Boolean validate(String value) {
+            return true;
+        }
+
+        @Override
+        protected String parseValue(String value) {
+            if ("block".equals(value)) {
+                STARTED.countDown();
+                try {
+                    RELEASED.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return value;
+        }
+    }
+}
@@ -1,3 +1,4 @@
+import classes.PrimitiveArray;
 import classes.Simple;
 import classes.SimpleArray;
 import classes.SimpleNested;
@@ -7,17 +8,26 @@ import type.DoubleType;
 import type.IntegerType;
 import type.PhoneType;
 import type.StringType;
+import validation.SanitizationException;
+import validation.ValidationError;
 
 import javax.xml.bind.ValidationException;
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 import static java.util.Optional.ofNullable;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -29,6 +39,7 @@ class SanitizerTest {
     private static String CORRECT_ARRAY = getResource("correct/simple_array.json");
     private static String CORRECT_NESTED = getResource("correct/simple_nested.json");
     private static String CORRECT_NESTED_NESTED = getResource("correct/simple_nested_nested.json");
+    private static String CORRECT_PRIMITIVE_ARRAY = getResource("correct/primitive_array.json");
     private static String CORRECT_NOT_EXISTS_FIELDS = getResource("correct/simple_not_exists_fields.json");
 
     private static String INCORRECT = getResource("incorrect/simple.json");
@@ -298,4 +309,143 @@ class SanitizerTest {
         assertTrue(exception.getMessage().contains("nested/nested/foo: Type String not support"));
         assertTrue(exception.getMessage().contains("nested/nested/baz: Type Object not support"));
     }
+
+    @Test
+    void sanitize_MissingFieldTest() throws IOException, InstantiationException, IllegalAccessException, ValidationException {
+        Map<String, Object> nested = new HashMap<>();
+        nested.put("qux", IntegerType.class);
+
+        Simple simple = Sanitizer.of(CORRECT_NESTED, Simple.class)
+                .map("foo", IntegerType.class)
+                .map("qux", IntegerType.class)
+                .map("quux", DoubleType[].class)
+                .map("nested", nested)
+                .get();
+
+        assertEquals(simple.getFoo(), Integer.valueOf(123));
+    }
+
+    @Test
+    void sanitize_PrimitiveArrayTest() throws IOException, InstantiationException, IllegalAccessException, ValidationException {
+        PrimitiveArray array = Sanitizer.of(CORRECT_PRIMITIVE_ARRAY, PrimitiveArray.class)
+                .map("ints", IntegerType[].class)
+                .map("longs", IntegerType[].class)
+                .map("doubles", DoubleType[].class)
+                .get();
+
+        assertArrayEquals(array.getInts(), new int[]{1, 2, 3});
+        assertArrayEquals(array.getLongs(), new long[]{4, 5});
+        assertEquals(array.getDoubles().length, 18);
+        assertEquals(array.getDoubles()[1], 123.2);
+        assertEquals(array.getDoubles()[17], 15.0);
+
+        Sanitizer sanitizer = Sanitizer.of("{\"ints\": [\"1\", \"x\"]}", PrimitiveArray.class)
+                .map("ints", IntegerType[].class);
+
+        Exception exception = assertThrows(ValidationException.class, sanitizer::get);
+        assertTrue(exception.getMessage().contains("ints[1]: Invalid value \"x\" for type \"IntegerType\""));
+    }
+
+    @Test
+    void sanitize_StructuredErrorsTest() throws IOException, InstantiationException, IllegalAccessException {
+        Map<String, Object> nested2 = new HashMap<>();
+        nested2.put("baz", PhoneType.class);
+        nested2.put("array", DoubleType[].class);
+
+        Map<String, Object> nested1 = new HashMap<>();
+        nested1.put("foo", IntegerType.class);
+        nested1.put("nested", nested2);
+
+        Sanitizer<SimpleNestedNested> sanitizer = Sanitizer.of(INCORRECT_NESTED_NESTED, SimpleNestedNested.class)
+                .map("foo", IntegerType.class)
+                .map("nested", nested1);
+
+        SanitizationException exception = assertThrows(SanitizationException.class, sanitizer::get);
+        List<ValidationError> errors = sanitizer.errors();
+        assertEquals(exception.getErrors(), errors);
+        assertEquals(errors.size(), 3);
+
+        ValidationError array = errors.stream().filter(e -> "array".equals(e.getField())).findFirst().get();
+        assertEquals(array.getPath(), Arrays.asList("nested", "nested"));
+        assertEquals(array.getIndex(), 2);
+        assertEquals(array.getType(), DoubleType.class);
+        assertEquals(array.getValue(), "123x");
+        assertEquals(array.toString(), "nested/nested/array[2]: Invalid value \"123x\" for type \"DoubleType\"");
+
+        ValidationError foo = errors.stream().filter(e -> "foo".equals(e.getField())).findFirst().get();
+        assertEquals(foo.getPath(), Collections.singletonList("nested"));
+        assertEquals(foo.getIndex(), ValidationError.NO_INDEX);
+        assertEquals(foo.getValue(), "123d");
+    }
+
+    @Test
+    void sanitize_AliasTest() throws IOException, InstantiationException, IllegalAccessException, ValidationException {
+        Map<String, Object> nested2 = new HashMap<>();
+        nested2.put("baz", "phone");
+        nested2.put("array", "double[]");
+
+        Map<String, Object> nested1 = new HashMap<>();
+        nested1.put("foo", "integer");
+        nested1.put("nested", nested2);
+
+        SimpleNestedNested simple = Sanitizer.of(CORRECT_NESTED_NESTED, SimpleNestedNested.class)
+                .map("foo", "integer")
+                .map("bar", "string")
+                .map("nested", nested1)
+                .get();
+
+        assertEquals(simple.getFoo(), Integer.valueOf(123));
+        assertEquals(simple.getBar(), "asd");
+        assertEquals(simple.getNested().getFoo(), Integer.valueOf(123));
+        assertEquals(simple.getNested().getNested().getBaz(), "79502885623");
+        assertEquals(simple.getNested().getNested().getArray().size(), 3);
+
+        Exception exception = assertThrows(ValidationException.class, () -> Sanitizer.of(CORRECT, Simple.class)
+                .map("foo", "uuid")
+                .get());
+        assertEquals(exception.getMessage().trim(), "foo: Type \"uuid\" not support");
+    }
+
+    @Test
+    void sanitize_ByteInputTest() throws IOException, InstantiationException, IllegalAccessException, ValidationException {
+        byte[] json = CORRECT.getBytes(StandardCharsets.UTF_8);
+
+        for (Sanitizer<Simple> sanitizer : Arrays.asList(
+                Sanitizer.of(json, Simple.class),
+                Sanitizer.of(ByteBuffer.wrap(json), Simple.class),
+                Sanitizer.of(new ByteArrayInputStream(json), Simple.class))) {
+            Simple simple = sanitizer
+                    .map("foo", IntegerType.class)
+                    .map("baz", PhoneType.class)
+                    .get();
+            assertEquals(simple.getFoo(), Integer.valueOf(123));
+            assertEquals(simple.getBaz(), "79502885623");
+        }
+        assertNull(Sanitizer.of(new byte[0], Simple.class).map("foo", IntegerType.class).get().getFoo());
+    }
+
+    @Test
+    void sanitize_ProjectionTest() throws IOException, InstantiationException, IllegalAccessException, ValidationException {
+        String json = "{\"blob\": [" + String.join(",", Collections.nCopies(1000, "{\"bar\": [\"x\"]}")) + "], "
+                + CORRECT.substring(1);
+
+        Simple simple = Sanitizer.of(json, Simple.class)
+                .map("foo", IntegerType.class)
+                .map("bar", StringType.class)
+                .get();
+        assertEquals(simple.getFoo(), Integer.valueOf(123));
+        assertEquals(simple.getBar(), "asd");
+
+        Exception exception = assertThrows(ValidationException.class, () -> Sanitizer.of("{\"foo\": \"1\", \"blob\": [}", Simple.class)
+                .map("foo", IntegerType.class)
+                .get());
+        assertTrue(exception.getMessage().startsWith("Malformed json"));
+
+        List<ValidationError> errors = Sanitizer.of("{\"foo\": ", Simple.class)
+                .map("foo", IntegerType.class)
+                .errors();
+        assertEquals(errors.size(), 1);
+        assertTrue(errors.get(0).toString().startsWith("Malformed json"));
+        assertEquals(errors.get(0).getField(), "");
+    }
 }
\ No newline at end of file
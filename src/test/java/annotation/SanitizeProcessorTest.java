@@ -0,0 +1,106 @@
+package annotation;
+
+import com.fasterxml.jackson.core.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Mappings the generated code cannot express are rejected when the annotated class is compiled.
+ */
+class SanitizeProcessorTest {
+
+    @Test
+    void process_ValidTest() throws IOException, URISyntaxException {
+        assertEquals(errors("public class Target {\n"
+                + "    @Sanitize(type.IntegerType.class) Integer foo;\n"
+                + "    @Sanitize(type.IntegerType.class) private long[] bar;\n"
+                + "    public void setBar(long[] bar) { this.bar = bar; }\n"
+                + "}"), Collections.emptyList());
+    }
+
+    @Test
+    void process_UnreachableFieldTest() throws IOException, URISyntaxException {
+        assertEquals(errors("public class Target {\n"
+                        + "    @Sanitize(type.IntegerType.class) private Integer foo;\n"
+                        + "    @Sanitize(type.IntegerType.class) final Integer bar = 0;\n"
+                        + "}"),
+                Arrays.asList("Field foo is not accessible from the generated sanitizer, add a setter or widen its access",
+                        "Field bar must not be final, or needs a setter"));
+    }
+
+    @Test
+    void process_DuplicateKeyTest() throws IOException, URISyntaxException {
+        assertEquals(errors("public class Target {\n"
+                        + "    @Sanitize(type.IntegerType.class) Integer foo;\n"
+                        + "    @Sanitize(value = type.StringType.class, key = \"foo\") String bar;\n"
+                        + "}"),
+                Collections.singletonList("Key \"foo\" is already mapped to field foo"));
+    }
+
+    @Test
+    void process_PrimitiveArrayFitTest() throws IOException, URISyntaxException {
+        assertEquals(errors("public class Target {\n"
+                        + "    @Sanitize(type.PhoneType.class) int[] foo;\n"
+                        + "    @Sanitize(type.DoubleType.class) int[] bar;\n"
+                        + "    @Sanitize(type.IntegerType.class) double[] baz;\n"
+                        + "}"),
+                Arrays.asList("Type PhoneType cannot fill int[]", "Type DoubleType cannot fill int[]"));
+    }
+
+    /**
+     * Runs the processor alone on {@code Target} in package {@code sample}, the generated source is only checked.
+     */
+    private static List<String> errors(String body) throws IOException, URISyntaxException {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        final String classpath = location(Sanitize.class) + File.pathSeparator + location(JsonParser.class);
+        final Path output = Files.createTempDirectory("generated");
+        final JavaFileObject source = new SimpleJavaFileObject(URI.create("string:///sample/Target.java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return "package sample;\n\nimport annotation.Sanitize;\n\n" + body;
+            }
+        };
+
+        final JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics,
+                Arrays.asList("-proc:only", "-classpath", classpath, "-s", output.toString(), "-d", output.toString()),
+                null, Collections.singletonList(source));
+        task.setProcessors(Collections.singletonList(new SanitizeProcessor()));
+        try {
+            task.call();
+        } finally {
+            try (Stream<Path> files = Files.walk(output)) {
+                files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+
+        return diagnostics.getDiagnostics().stream()
+                .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                .map(diagnostic -> diagnostic.getMessage(null))
+                .collect(Collectors.toList());
+    }
+
+    private static String location(Class<?> type) throws URISyntaxException {
+        return new File(type.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+    }
+}
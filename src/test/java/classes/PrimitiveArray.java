@@ -0,0 +1,19 @@
+package classes;
+
+public class PrimitiveArray {
+    private int[] ints;
+    private long[] longs;
+    private double[] doubles;
+
+    public int[] getInts() {
+        return ints;
+    }
+
+    public long[] getLongs() {
+        return longs;
+    }
+
+    public double[] getDoubles() {
+        return doubles;
+    }
+}
@@ -0,0 +1,26 @@
+package classes.annotated;
+
+import annotation.Sanitize;
+import type.DoubleType;
+import type.IntegerType;
+
+public class PrimitiveArray {
+    @Sanitize(IntegerType.class)
+    int[] ints;
+    @Sanitize(IntegerType.class)
+    long[] longs;
+    @Sanitize(DoubleType.class)
+    double[] doubles;
+
+    public int[] getInts() {
+        return ints;
+    }
+
+    public long[] getLongs() {
+        return longs;
+    }
+
+    public double[] getDoubles() {
+        return doubles;
+    }
+}
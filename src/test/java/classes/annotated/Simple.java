@@ -0,0 +1,35 @@
+package classes.annotated;
+
+import annotation.Sanitize;
+import type.IntegerType;
+import type.PhoneType;
+import type.StringType;
+
+/**
+ * Annotated counterpart of {@link classes.Simple}, its fields cover both ways a generated sanitizer assigns a field:
+ * through a setter and directly.
+ */
+public class Simple {
+    @Sanitize(IntegerType.class)
+    protected Integer foo;
+    @Sanitize(StringType.class)
+    private String bar;
+    @Sanitize(PhoneType.class)
+    String baz;
+
+    public Integer getFoo() {
+        return foo;
+    }
+
+    public String getBar() {
+        return bar;
+    }
+
+    public void setBar(String bar) {
+        this.bar = bar;
+    }
+
+    public String getBaz() {
+        return baz;
+    }
+}
@@ -0,0 +1,19 @@
+package classes.annotated;
+
+import annotation.Sanitize;
+import type.DoubleType;
+
+import java.util.List;
+
+public class SimpleArray extends Simple {
+    @Sanitize(DoubleType.class)
+    private List<Double> array;
+
+    public List<Double> getArray() {
+        return array;
+    }
+
+    public void setArray(List<Double> array) {
+        this.array = array;
+    }
+}
@@ -0,0 +1,16 @@
+package classes.annotated;
+
+import annotation.Nested;
+
+public class SimpleNested extends Simple {
+    @Nested
+    private SimpleArray nested;
+
+    public SimpleArray getNested() {
+        return nested;
+    }
+
+    public void setNested(SimpleArray nested) {
+        this.nested = nested;
+    }
+}
@@ -0,0 +1,16 @@
+package classes.annotated;
+
+import annotation.Nested;
+
+public class SimpleNestedNested extends Simple {
+    @Nested
+    private SimpleNested nested;
+
+    public SimpleNested getNested() {
+        return nested;
+    }
+
+    public void setNested(SimpleNested nested) {
+        this.nested = nested;
+    }
+}
@@ -0,0 +1,36 @@
+package metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistogramTest {
+
+    @Test
+    void percentile_RelativeErrorTest() {
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(histogram.count(), 100_000L);
+        assertEquals(histogram.mean(), 50_000.5);
+        assertEquals(histogram.percentile(0), 1L);
+        for (double percentile : new double[]{50, 90, 99, 99.9, 100}) {
+            long expected = (long) (100_000 * percentile / 100);
+            long actual = histogram.percentile(percentile);
+            assertTrue(actual >= expected && actual <= expected * 1.04, percentile + ": " + actual);
+        }
+        assertEquals(histogram.max(), histogram.percentile(100));
+    }
+
+    @Test
+    void index_BucketBoundsTest() {
+        for (long value : new long[]{0, 31, 32, 63, 64, 1_000_000, Long.MAX_VALUE}) {
+            long upper = Histogram.upperBound(Histogram.index(value));
+            assertTrue(upper >= value && Histogram.index(upper) == Histogram.index(value), String.valueOf(value));
+        }
+        assertEquals(new Histogram().percentile(99), 0L);
+    }
+}
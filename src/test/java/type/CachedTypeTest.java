@@ -0,0 +1,122 @@
+package type;
+
+import org.junit.jupiter.api.Test;
+
+import javax.xml.bind.ValidationException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachedTypeTest {
+
+    @Test
+    void transform_HitMissTest() throws ValidationException {
+        CountingType delegate = new CountingType();
+        CachedType<String> type = CachedType.of(delegate, 100);
+
+        assertEquals(type.transform("8 (950) 288-56-23"), "79502885623");
+        assertEquals(type.transform("8 (950) 288-56-23"), "79502885623");
+        assertNull(type.transform(null));
+
+        InvalidValueException exception = assertThrows(InvalidValueException.class, () -> type.transform("8 (950) 288"));
+        assertSame(assertThrows(InvalidValueException.class, () -> type.transform("8 (950) 288")), exception);
+        assertEquals(exception.getMessage(), "Invalid value \"8 (950) 288\" for type \"CountingType\"");
+
+        assertEquals(delegate.calls.get(), 2);
+        assertEquals(type.hitCount(), 2);
+        assertEquals(type.missCount(), 2);
+        assertEquals(type.size(), 2);
+    }
+
+    @Test
+    void transform_EvictionTest() throws ValidationException {
+        CachedType<Integer> type = CachedType.of(new IntegerType(), 64);
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(type.transform(String.valueOf(i)), Integer.valueOf(i));
+        }
+        assertTrue(type.size() <= 64);
+        assertEquals(type.evictionCount(), 1000 - type.size());
+    }
+
+    @Test
+    void transform_MaximumSizeTest() throws ValidationException {
+        for (int maximumSize : new int[]{1, 3, 17, 100, 1000}) {
+            CachedType<Integer> type = CachedType.of(new IntegerType(), maximumSize);
+
+            for (int i = 0; i < 10 * maximumSize + 100; i++) {
+                type.transform(String.valueOf(i));
+                assertTrue(type.size() <= maximumSize, () -> "size " + type.size() + " > " + maximumSize);
+            }
+            assertEquals(type.size(), maximumSize);
+        }
+    }
+
+    @Test
+    void transform_PrimitiveTest() throws ValidationException {
+        BaseType<Integer> integer = CachedType.of(new IntegerType(), 16);
+        BaseType<Double> decimal = CachedType.of(new DoubleType(), 16);
+
+        assertEquals(((IntTransformer) integer).transformInt("42"), 42);
+        assertEquals(((IntTransformer) integer).transformInt("42"), 42);
+        assertEquals(((CachedType<Integer>) integer).hitCount(), 1);
+        assertEquals(((DoubleTransformer) decimal).transformDouble("1.5"), 1.5);
+        assertThrows(InvalidValueException.class, () -> ((IntTransformer) integer).transformInt("x"));
+        assertFalse(CachedType.of(new PhoneType(), 16) instanceof IntTransformer);
+    }
+
+    @Test
+    void transform_ConcurrentTest() throws Exception {
+        CachedType<String> type = CachedType.of(new PhoneType(), 16);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10000; i++) {
+                        String phone = String.format("8 (950) 288-56-%02d", i % 50);
+                        assertEquals(type.transform(phone), String.format("795028856%02d", i % 50));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(type.hitCount() + type.missCount(), 80000);
+    }
+
+    @Test
+    void registry_CacheTest() throws InstantiationException, IllegalAccessException {
+        TypeRegistry registry = new TypeRegistry();
+        CachedType<String> cached = registry.cache(PhoneType.class, 1000);
+
+        assertSame(registry.get(PhoneType.class), cached);
+        assertSame(registry.cache(PhoneType.class, 10).getDelegate(), cached.getDelegate());
+    }
+
+    static class CountingType extends PhoneType {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public String transform(String value) throws ValidationException {
+            if (value != null) {
+                calls.incrementAndGet();
+            }
+            return super.transform(value);
+        }
+    }
+}
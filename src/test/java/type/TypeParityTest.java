@@ -0,0 +1,121 @@
+package type;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The hand-written scanners must accept exactly the grammars of the original regular expressions
+ * and produce the same values.
+ */
+class TypeParityTest {
+    private static final Pattern INTEGER = Pattern.compile("^\\d+$");
+    private static final Pattern DOUBLE = Pattern.compile("^\\d+((,|\\.)\\d+)?$");
+    private static final Pattern PHONE = Pattern.compile("^(\\+7|7|8)?[\\s\\-]?\\(?[489][0-9]{2}\\)?[\\s\\-]?[0-9]{3}[\\s\\-]?[0-9]{2}[\\s\\-]?[0-9]{2}$");
+
+    private static final List<String> SAMPLES = Arrays.asList(
+            "", "0", "123", "0123", "123a", "a123", "12 3", "+123", "-123", "123\n", "2147483647", "2147483648",
+            "99999999999999999999", "123.1", "123,2", "123.", ".1", "1,2,3", "1.2.3", "1,", "0.0000000000000000000000001",
+            "123456789012345.678", "9007199254740993", "1.7976931348623157", "3.141592653589793238",
+            "8 (950) 288-56-23", "8 (950) 288-56-233", "8 (950) 288", "+7 (950) 288-56-23", "+79502885623",
+            "79502885623", "89502885623", "9502885623", "8502885623", "850-288-56-23", "(850)2885623",
+            "8(850)2885623", "88502885623", "+7-950-288-56-23", "7 950 288 56 23", "8\t950\t288\t56\t23",
+            "8 (950)) 288-56-23", "8  (950) 288-56-23", "+8 950 288 56 23", "+7", "7", "8", "8 (350) 288-56-23",
+            "8 (950) 288-56-23 ", " 8 (950) 288-56-23", "8 (950 288-56-23", "8 950) 288-56-23", "8.950.288.56.23"
+    );
+
+    private static List<String> corpus() {
+        final List<String> corpus = new ArrayList<>(SAMPLES);
+        final Random random = new Random(42);
+        final String alphabet = "0123456789489+-() .,\t\n\u000Ba";
+
+        for (int i = 0; i < 20000; i++) {
+            final StringBuilder builder = new StringBuilder();
+            final int length = random.nextInt(20);
+            for (int j = 0; j < length; j++) {
+                builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            corpus.add(builder.toString());
+        }
+        for (String phone : SAMPLES) {
+            for (int i = 0; i < 200 && !phone.isEmpty(); i++) {
+                final StringBuilder builder = new StringBuilder(phone);
+                final int position = random.nextInt(builder.length());
+                final char c = alphabet.charAt(random.nextInt(alphabet.length()));
+                switch (random.nextInt(3)) {
+                    case 0:
+                        builder.deleteCharAt(position);
+                        break;
+                    case 1:
+                        builder.insert(position, c);
+                        break;
+                    default:
+                        builder.setCharAt(position, c);
+                }
+                corpus.add(builder.toString());
+            }
+        }
+        return corpus;
+    }
+
+    private static String outcome(Function<String, Object> function, String value) {
+        try {
+            return String.valueOf(function.apply(value));
+        } catch (RuntimeException e) {
+            return e.getClass().getName() + ": " + e.getMessage();
+        }
+    }
+
+    private static <T> void assertParity(BaseType<T> type, Pattern pattern, Function<String, Object> parse) {
+        for (String value : corpus()) {
+            final boolean valid = pattern.matcher(value).matches();
+
+            assertEquals(valid, type.validate(value), value);
+            if (valid) {
+                assertEquals(outcome(parse, value), outcome(type::parseValue, value), value);
+                assertEquals(outcome(parse, value), outcome(v -> {
+                    try {
+                        return type.transform(v);
+                    } catch (javax.xml.bind.ValidationException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }, value), value);
+            }
+        }
+    }
+
+    @Test
+    void integerTypeTest() {
+        assertParity(new IntegerType(), INTEGER, Integer::parseInt);
+    }
+
+    @Test
+    void doubleTypeTest() {
+        assertParity(new DoubleType(), DOUBLE, v -> Double.parseDouble(v.replaceFirst(",", ".")));
+    }
+
+    @Test
+    void phoneTypeTest() {
+        final Function<String, Object> parse = value -> {
+            String normalize = value.replaceAll("[^\\d.]", "");
+            if (normalize.length() == 11 && normalize.charAt(0) == '8') {
+                normalize = "7" + normalize.substring(1);
+            } else if (normalize.length() == 10) {
+                normalize = "7" + normalize;
+            }
+            return normalize;
+        };
+        assertParity(new PhoneType(), PHONE, parse);
+
+        for (String value : corpus()) {
+            assertEquals(parse.apply(value), new PhoneType().parseValue(value), value);
+        }
+    }
+}
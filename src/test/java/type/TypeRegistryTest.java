@@ -0,0 +1,51 @@
+package type;
+
+import org.junit.jupiter.api.Test;
+
+import javax.xml.bind.ValidationException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TypeRegistryTest {
+
+    @Test
+    void get_SharedInstanceTest() throws InstantiationException, IllegalAccessException {
+        TypeRegistry registry = TypeRegistry.getDefault();
+
+        assertSame(registry.get(PhoneType.class), registry.get(PhoneType.class));
+        assertSame(registry.resolve("phone"), PhoneType.class);
+        assertSame(registry.resolve("phone[]"), PhoneType[].class);
+        assertNull(registry.resolve("uuid"));
+        assertNull(registry.resolve("uuid[]"));
+    }
+
+    @Test
+    void register_CustomTypeTest() throws InstantiationException, IllegalAccessException, ValidationException {
+        TypeRegistry registry = new TypeRegistry()
+                .register("upper", UpperType.class)
+                .register(UpperType.class, new UpperType("!"));
+
+        assertSame(registry.resolve("upper"), UpperType.class);
+        assertEquals(registry.get(UpperType.class).transform("asd"), "ASD!");
+    }
+
+    static class UpperType extends BaseType<String> {
+        private final String suffix;
+
+        UpperType(String suffix) {
+            this.suffix = suffix;
+        }
+
+        @Override
+        protected Boolean validate(String value) {
+            return true;
+        }
+
+        @Override
+        protected String parseValue(String value) {
+            return value.toUpperCase() + suffix;
+        }
+    }
+}